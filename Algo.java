@@ -4,7 +4,13 @@ public class Algo {
 
     // Bfs on graph starting from vertex start, visits all reachable vertices, then continues from any unvisited vertex until all vertices are traversed.
     
-    public static List<Integer> bfs(Graph g, int start) {
+    public static List<Integer> bfs(GraphView g, int start) {
+        return bfs(g, start, null);
+    }
+
+    // Bfs as above, also recording each visit and first enqueue to trace unless trace is null.
+
+    public static List<Integer> bfs(GraphView g, int start, AlgoTrace trace) {
         List<Integer> order = new ArrayList<>();
         int n = g.getSize();
         // Return empty list if start index is out of bounds
@@ -12,16 +18,28 @@ public class Algo {
             return order;
         }
 
+        long t0 = AlgoMetrics.start();
         Set<Integer> seen = new HashSet<>();
         Queue<Integer> q = new ArrayDeque<>();
+        // Every vertex below next is already seen, so restarts never rescan from 0
+        int next = 0;
 
         // Initialize BFS
         seen.add(start);
         q.add(start);
+        if (trace != null) {
+            trace.enqueue(start);
+        }
 
         while (!q.isEmpty()) {
             int u = q.poll();
             order.add(u);
+            if (trace != null) {
+                trace.visit(u);
+            }
+            if ((order.size() & AlgoProgress.CHECK_MASK) == 0) {
+                AlgoProgress.checkpoint(order.size());
+            }
 
             // Sort neighbors 
             List<Integer> neighbors = new ArrayList<>(g.outNeighbors(u));
@@ -30,42 +48,70 @@ public class Algo {
                 if (!seen.contains(v)) {
                     seen.add(v);
                     q.add(v);
+                    if (trace != null) {
+                        trace.enqueue(v);
+                    }
                 }
             }
 
             // If queue is empty but nodes remain unvisited, enqueue the next unvisited
             if (q.isEmpty() && seen.size() < n) {
-                for (int i = 0; i < n; i++) {
-                    if (!seen.contains(i)) {
-                        seen.add(i);
-                        q.add(i);
-                        break;
-                    }
+                while (seen.contains(next)) {
+                    next++;
+                }
+                seen.add(next);
+                q.add(next);
+                if (trace != null) {
+                    trace.enqueue(next);
                 }
             }
         }
+        if (AlgoMetrics.isEnabled()) {
+            recordTraversal(AlgoMetrics.Kind.BFS, t0, g, order, 0, 0);
+        }
         return order;
     }
 
     // Dfs on graph starting from vertex start, uses a stack for traversal and continues to unvisited vertices after finishing a connected component.
  
-    public static List<Integer> dfs(Graph g, int start) {
+    public static List<Integer> dfs(GraphView g, int start) {
+        return dfs(g, start, null);
+    }
+
+    // Dfs as above, also recording each visit and first push to trace unless trace is null.
+
+    public static List<Integer> dfs(GraphView g, int start, AlgoTrace trace) {
         List<Integer> order = new ArrayList<>();
         int n = g.getSize();
         if (start < 0 || start >= n) {
             return order;
         }
 
+        long t0 = AlgoMetrics.start();
         Set<Integer> seen = new HashSet<>();
         Deque<Integer> stack = new ArrayDeque<>();
+        // Every vertex below next is already seen, so restarts never rescan from 0
+        int next = 0;
+        long pushes = 1;
+        long pops = 0;
 
         // Begin DFS
         stack.push(start);
+        if (trace != null) {
+            trace.enqueue(start);
+        }
         while (!stack.isEmpty()) {
             int u = stack.pop();
+            pops++;
             if (!seen.contains(u)) {
                 seen.add(u);
                 order.add(u);
+                if (trace != null) {
+                    trace.visit(u);
+                }
+                if ((order.size() & AlgoProgress.CHECK_MASK) == 0) {
+                    AlgoProgress.checkpoint(order.size());
+                }
 
                 // Sort neighbors and push in reverse order
                 List<Integer> neighbors = new ArrayList<>(g.outNeighbors(u));
@@ -74,30 +120,51 @@ public class Algo {
                 for (int v : neighbors) {
                     if (!seen.contains(v)) {
                         stack.push(v);
+                        pushes++;
+                        if (trace != null) {
+                            trace.enqueue(v);
+                        }
                     }
                 }
             }
 
             // If stack is empty but nodes remain unvisited, push next unvisited
             if (stack.isEmpty() && seen.size() < n) {
-                for (int i = 0; i < n; i++) {
-                    if (!seen.contains(i)) {
-                        stack.push(i);
-                        break;
-                    }
+                while (seen.contains(next)) {
+                    next++;
+                }
+                stack.push(next);
+                pushes++;
+                if (trace != null) {
+                    trace.enqueue(next);
                 }
             }
         }
+        if (AlgoMetrics.isEnabled()) {
+            recordTraversal(AlgoMetrics.Kind.DFS, t0, g, order, pushes, pops);
+        }
         return order;
     }
 
     // Computes the shortest path from src to dst
 
-    public static List<Integer> dijkstra(Graph g, int src, int dst) {
+    public static List<Integer> dijkstra(GraphView g, int src, int dst) {
+        return dijkstra(g, src, dst, null);
+    }
+
+    // Dijkstra as above, also recording enqueues, relaxations and settled vertices to trace unless
+    // trace is null.
+
+    public static List<Integer> dijkstra(GraphView g, int src, int dst, AlgoTrace trace) {
         int n = g.getSize();
         int[] dist = new int[n];
         int[] prev = new int[n];
         boolean[] done = new boolean[n];
+        long t0 = AlgoMetrics.start();
+        long edges = 0;
+        long pushes = 1;
+        long pops = 0;
+        long stale = 0;
 
         // Initialize distances
         Arrays.fill(dist, Integer.MAX_VALUE);
@@ -107,88 +174,635 @@ public class Algo {
         // Min heap of distance, vertex
         PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[0]));
         pq.add(new int[]{0, src});
+        if (trace != null) {
+            trace.enqueue(src);
+        }
 
         while (!pq.isEmpty()) {
             int[] cur = pq.poll();
+            pops++;
             int u = cur[1];
             if (done[u]) {
+                stale++;
                 continue;
             }
             done[u] = true;
+            if (trace != null) {
+                trace.settle(u);
+            }
+            if (((pops - stale) & AlgoProgress.CHECK_MASK) == 0) {
+                AlgoProgress.checkpoint(pops - stale);
+            }
             if (u == dst) {
                 break; // Found shortest path to destination
             }
 
             for (int v : g.outNeighbors(u)) {
+                edges++;
                 int alt = dist[u] + g.getWeight(u, v);
                 if (alt < dist[v]) {
+                    if (trace != null) {
+                        if (dist[v] == Integer.MAX_VALUE) {
+                            trace.enqueue(v);
+                        } else {
+                            trace.relax(v);
+                        }
+                    }
                     dist[v] = alt;
                     prev[v] = u;
                     pq.add(new int[]{alt, v});
+                    pushes++;
                 }
             }
         }
+        if (AlgoMetrics.isEnabled()) {
+            AlgoMetrics.record(AlgoMetrics.Kind.DIJKSTRA, t0, pops - stale, edges, pushes, pops, stale);
+        }
 
         // Reconstruct path backwards
-        List<Integer> path = new ArrayList<>();
         if (dist[dst] == Integer.MAX_VALUE) {
-            return path; // No path found
+            return new ArrayList<>(); // No path found
         }
-        for (int at = dst; at != -1; at = prev[at]) {
-            path.add(0, at);
-        }
-        return path;
+        return ShortestPathTree.buildPath(prev, dst);
     }
 
     // Topo sort on a DAG, detects cycles and returns null if the graph is not a DAG.
+    // Runs on a CSR snapshot with an explicit stack, so long chains cannot overflow the call stack.
+
+    public static List<Integer> toposort(GraphView g) {
+        return toposort(g.freeze());
+    }
+
+    // Kahn's algorithm on g, reports a cycle instead of an order when the graph is not a DAG.
+
+    public static TopoOrder toposortKahn(GraphView g) {
+        return toposortKahn(g.freeze());
+    }
+
+    // Bfs over a CSR graph, same visit order as bfs(Graph, int) without boxing or per-vertex sorting.
+
+    public static List<Integer> bfs(IndexedGraph g, int start) {
+        long t0 = AlgoMetrics.start();
+        Traversal.Workspace ws = new Traversal.Workspace(g.getSize());
+        Traversal.bfs(g, start, ws);
+        if (AlgoMetrics.isEnabled()) {
+            recordTraversal(AlgoMetrics.Kind.BFS, t0, g, ws);
+        }
+        return ws.toList();
+    }
+
+    // Dfs over a CSR graph, same visit order as dfs(Graph, int) without boxing or per-vertex sorting.
+
+    public static List<Integer> dfs(IndexedGraph g, int start) {
+        long t0 = AlgoMetrics.start();
+        Traversal.Workspace ws = new Traversal.Workspace(g.getSize());
+        Traversal.dfs(g, start, ws);
+        if (AlgoMetrics.isEnabled()) {
+            recordTraversal(AlgoMetrics.Kind.DFS, t0, g, ws);
+        }
+        return ws.toList();
+    }
+
+    // Labels every vertex with the id of the traversal tree it joins, scanning from vertex 0.
+    // On an undirected graph these are its connected components.
+
+    public static int[] components(IndexedGraph g) {
+        int[] label = new int[g.getSize()];
+        Traversal.components(g, label, new Traversal.Workspace(g.getSize()));
+        return label;
+    }
+
+    // Computes the shortest path from src to dst over a CSR graph.
+
+    public static List<Integer> dijkstra(IndexedGraph g, int src, int dst) {
+        int n = g.getSize();
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        boolean[] done = new boolean[n];
+        long t0 = AlgoMetrics.start();
+        long edges = 0;
+        long pushes = 1;
+        long pops = 0;
+        long stale = 0;
+
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[src] = 0;
+        prev[src] = -1;
+
+        PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[0]));
+        pq.add(new int[]{0, src});
+
+        while (!pq.isEmpty()) {
+            int[] cur = pq.poll();
+            pops++;
+            int u = cur[1];
+            if (done[u]) {
+                stale++;
+                continue;
+            }
+            done[u] = true;
+            if (((pops - stale) & AlgoProgress.CHECK_MASK) == 0) {
+                AlgoProgress.checkpoint(pops - stale);
+            }
+            if (u == dst) {
+                break;
+            }
+
+            int end = g.end(u);
+            edges += end - g.start(u);
+            for (int i = g.start(u); i < end; i++) {
+                int v = g.target(i);
+                int alt = dist[u] + g.weight(i);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    prev[v] = u;
+                    pq.add(new int[]{alt, v});
+                    pushes++;
+                }
+            }
+        }
+        if (AlgoMetrics.isEnabled()) {
+            AlgoMetrics.record(AlgoMetrics.Kind.DIJKSTRA, t0, pops - stale, edges, pushes, pops, stale);
+        }
+
+        if (dist[dst] == Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return ShortestPathTree.buildPath(prev, dst);
+    }
+
+    // Shortest path from src to dst using an indexed d-ary heap with decrease-key.
+    // The heap holds each vertex at most once, so nothing is allocated per relaxation.
+
+    public static List<Integer> dijkstraIndexed(IndexedGraph g, int src, int dst, int arity) {
+        int n = g.getSize();
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        IndexedHeap heap = new IndexedHeap(n, arity);
+        long t0 = AlgoMetrics.start();
+        long edges = 0;
+        long pushes = 1;
+        long pops = 0;
+
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[src] = 0;
+        prev[src] = -1;
+        heap.pushOrDecrease(src, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            pops++;
+            if ((pops & AlgoProgress.CHECK_MASK) == 0) {
+                AlgoProgress.checkpoint(pops);
+            }
+            if (u == dst) {
+                break;
+            }
+            int du = dist[u];
+            int end = g.end(u);
+            edges += end - g.start(u);
+            for (int i = g.start(u); i < end; i++) {
+                int v = g.target(i);
+                int alt = du + g.weight(i);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    prev[v] = u;
+                    heap.pushOrDecrease(v, alt);
+                    pushes++;
+                }
+            }
+        }
+        if (AlgoMetrics.isEnabled()) {
+            AlgoMetrics.record(AlgoMetrics.Kind.DIJKSTRA, t0, pops, edges, pushes, pops, 0);
+        }
+
+        if (dist[dst] == Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return ShortestPathTree.buildPath(prev, dst);
+    }
+
+    // Indexed-heap Dijkstra with the default 4-ary heap.
+
+    public static List<Integer> dijkstraIndexed(IndexedGraph g, int src, int dst) {
+        return dijkstraIndexed(g, src, dst, 4);
+    }
+
+    // Weights above this make Dial's bucket array larger than a heap is worth, dijkstraDial falls back
+    private static final int DIAL_MAX_WEIGHT = 1 << 20;
+
+    // Shortest path from src to dst for small integer weights without a comparison heap. Looks at the
+    // graph's weight range first, which CsrGraph and MappedGraph compute once: if all weights are equal
+    // a bfs finds the fewest-hop path, which is then also the cheapest; otherwise Dial's bucket queue
+    // runs with the largest weight. Same cost as dijkstra, the path can differ only when several
+    // shortest paths tie.
+
+    public static List<Integer> dijkstraDial(IndexedGraph g, int src, int dst) {
+        int min = g.minWeight();
+        int max = g.maxWeight();
+        if (min >= max) {
+            return bfsPath(g, src, dst);
+        }
+        if (max > DIAL_MAX_WEIGHT) {
+            return dijkstraIndexed(g, src, dst);
+        }
+        return dijkstraDial(g, src, dst, max);
+    }
+
+    // Bucket-queue shortest path on a mutable graph. Freezes it to CSR first, which a Graph only
+    // rebuilds after it has changed.
+
+    public static List<Integer> dijkstraDial(GraphView g, int src, int dst) {
+        return dijkstraDial(g.freeze(), src, dst);
+    }
+
+    // Dial's algorithm for weights known to be at most maxWeight, which skips the weight scan.
+    // Tentative distances live in maxWeight + 1 buckets used as a ring: every vertex waiting in the
+    // queue is within maxWeight of the distance being settled, so two live distances never share a
+    // bucket. Buckets are linked lists threaded through one entry array with lazy deletion, each
+    // relaxation adds an entry and outdated ones are skipped when their bucket comes up. Popped entries
+    // go on a free list, so the array only grows to the number of entries waiting at once.
+
+    public static List<Integer> dijkstraDial(IndexedGraph g, int src, int dst, int maxWeight) {
+        int n = g.getSize();
+        if (src < 0 || dst < 0 || src >= n || dst >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        if (maxWeight < 0 || maxWeight > DIAL_MAX_WEIGHT) {
+            throw new IllegalArgumentException("Weight bound must be between 0 and " + DIAL_MAX_WEIGHT);
+        }
+        int buckets = maxWeight + 1;
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        int[] head = new int[buckets];
+        int[] entryVertex = new int[64];
+        int[] entryNext = new int[64];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(head, -1);
+
+        dist[src] = 0;
+        prev[src] = -1;
+        entryVertex[0] = src;
+        entryNext[0] = -1;
+        head[0] = 0;
+        int entries = 1;
+        int free = -1;
+        int pending = 1;
+
+        boolean found = false;
+        for (int d = 0; pending > 0 && !found; d++) {
+            int b = d % buckets;
+            while (head[b] != -1) {
+                int e = head[b];
+                head[b] = entryNext[e];
+                pending--;
+                int u = entryVertex[e];
+                entryNext[e] = free;
+                free = e;
+                if (dist[u] != d) {
+                    // Superseded by a later relaxation, relaxations only ever lower dist[u]
+                    continue;
+                }
+                if (u == dst) {
+                    found = true;
+                    break;
+                }
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int w = g.weight(i);
+                    if (w > maxWeight) {
+                        throw new IllegalArgumentException("Edge weight " + w + " exceeds bound " + maxWeight);
+                    }
+                    int v = g.target(i);
+                    int alt = d + w;
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        prev[v] = u;
+                        int slot = free;
+                        if (slot != -1) {
+                            free = entryNext[slot];
+                        } else {
+                            if (entries == entryVertex.length) {
+                                entryVertex = Arrays.copyOf(entryVertex, entries * 2);
+                                entryNext = Arrays.copyOf(entryNext, entries * 2);
+                            }
+                            slot = entries++;
+                        }
+                        int nb = alt % buckets;
+                        entryVertex[slot] = v;
+                        entryNext[slot] = head[nb];
+                        head[nb] = slot;
+                        pending++;
+                    }
+                }
+            }
+        }
+
+        if (dist[dst] == Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return ShortestPathTree.buildPath(prev, dst);
+    }
+
+    // Point-to-point shortest path searching from both ends at once, same cost as dijkstra.
+    // For many queries on one graph keep a BidirectionalDijkstra around to reuse its buffers.
+
+    public static List<Integer> bidirectionalDijkstra(IndexedGraph g, int src, int dst) {
+        return new BidirectionalDijkstra(g).path(src, dst);
+    }
+
+    // A* shortest path from src to dst guided by h.
+
+    public static List<Integer> astar(IndexedGraph g, int src, int dst, Heuristic h) {
+        return astarSearch(g, src, dst, h).getPath();
+    }
+
+    // A* search that also reports which vertices it settled. Heap keys are dist + h(v, dst), so vertices
+    // pointing away from dst wait in the heap. A vertex is reopened if a shorter path to it turns up,
+    // which only happens when h is admissible but not consistent.
+
+    public static SearchResult astarSearch(IndexedGraph g, int src, int dst, Heuristic h) {
+        int n = g.getSize();
+        if (src < 0 || dst < 0 || src >= n || dst >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        int[] settled = new int[n];
+        int count = 0;
+        IndexedHeap heap = new IndexedHeap(n, 4);
+
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[src] = 0;
+        prev[src] = -1;
+        heap.pushOrDecrease(src, h.estimate(src, dst));
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (count == settled.length) {
+                settled = Arrays.copyOf(settled, count * 2);
+            }
+            settled[count++] = u;
+            if ((count & AlgoProgress.CHECK_MASK) == 0) {
+                AlgoProgress.checkpoint(count);
+            }
+            if (u == dst) {
+                break;
+            }
+            int du = dist[u];
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                int alt = du + g.weight(i);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    prev[v] = u;
+                    heap.pushOrDecrease(v, (int) Math.min(Integer.MAX_VALUE, (long) alt + h.estimate(v, dst)));
+                }
+            }
+        }
+
+        List<Integer> path = dist[dst] == Integer.MAX_VALUE
+            ? new ArrayList<>()
+            : ShortestPathTree.buildPath(prev, dst);
+        return new SearchResult(path, Arrays.copyOf(settled, count));
+    }
+
+    // Runs Dijkstra from src to every vertex once, the returned tree answers path queries for any target.
+
+    public static ShortestPathTree shortestPaths(IndexedGraph g, int src) {
+        int n = g.getSize();
+        if (src < 0 || src >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        IndexedHeap heap = new IndexedHeap(n, 4);
+
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(prev, -1);
+        dist[src] = 0;
+        heap.pushOrDecrease(src, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int du = dist[u];
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                int alt = du + g.weight(i);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    prev[v] = u;
+                    heap.pushOrDecrease(v, alt);
+                }
+            }
+        }
+        return new ShortestPathTree(src, dist, prev);
+    }
 
-    public static List<Integer> toposort(Graph g) {
+    // Shortest path tree on a mutable graph, freezes it to CSR first.
+
+    public static ShortestPathTree shortestPaths(GraphView g, int src) {
+        return shortestPaths(g.freeze(), src);
+    }
+
+    // Topo sort on a CSR graph, returns null if the graph is not a DAG.
+    // Same order as the recursive DFS, neighbors visited smallest first and vertices prepended as they finish.
+
+    public static List<Integer> toposort(IndexedGraph g) {
         int n = g.getSize();
         boolean[] seen = new boolean[n];
         boolean[] onStack = new boolean[n];
-        Deque<Integer> stack = new ArrayDeque<>();
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
 
-        // Visit all vertices
+        // Finished vertices fill from the back so the array reads in topological order
+        int[] sort = new int[n];
+        int next = n;
+        long t0 = AlgoMetrics.start();
+        long edges = 0;
+        long pushes = 0;
         for (int i = 0; i < n; i++) {
-            if (!seen[i]) {
-                boolean acyclic = dfsTopoHelper(i, g, seen, onStack, stack);
-                if (!acyclic) {
-                    return null; // Cycle detected
+            if (seen[i]) {
+                continue;
+            }
+            pushes++;
+            int top = 0;
+            seen[i] = true;
+            onStack[i] = true;
+            stack[top] = i;
+            cursor[top++] = g.start(i);
+
+            while (top > 0) {
+                int v = stack[top - 1];
+                int e = cursor[top - 1];
+                if (e < g.end(v)) {
+                    cursor[top - 1] = e + 1;
+                    edges++;
+                    int u = g.target(e);
+                    if (onStack[u]) {
+                        if (AlgoMetrics.isEnabled()) {
+                            AlgoMetrics.record(AlgoMetrics.Kind.TOPOSORT, t0, n - next, edges, pushes, n - next, 0);
+                        }
+                        return null; // Cycle found
+                    }
+                    if (!seen[u]) {
+                        seen[u] = true;
+                        onStack[u] = true;
+                        stack[top] = u;
+                        cursor[top++] = g.start(u);
+                        pushes++;
+                    }
+                } else {
+                    onStack[v] = false;
+                    sort[--next] = v;
+                    if (((n - next) & AlgoProgress.CHECK_MASK) == 0) {
+                        AlgoProgress.checkpoint(n - next);
+                    }
+                    top--;
                 }
             }
         }
-
-        // Pop stack 
-        List<Integer> sort = new ArrayList<>();
-        while (!stack.isEmpty()) {
-            sort.add(stack.pop());
+        if (AlgoMetrics.isEnabled()) {
+            AlgoMetrics.record(AlgoMetrics.Kind.TOPOSORT, t0, n, edges, pushes, n, 0);
         }
-        return sort;
+        return toList(sort, n);
     }
 
-    // Helper for topo sort
+    // Kahn's algorithm on a CSR graph, sources are taken in FIFO order starting from the smallest vertex.
+    // If some vertices never reach in-degree zero the graph has a cycle, and one is returned instead.
+
+    public static TopoOrder toposortKahn(IndexedGraph g) {
+        int n = g.getSize();
+        int[] indegree = new int[n];
+        for (int i = 0, m = g.edgeCount(); i < m; i++) {
+            indegree[g.target(i)]++;
+        }
+
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (indegree[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                if (--indegree[v] == 0) {
+                    queue[tail++] = v;
+                }
+            }
+        }
+        if (tail == n) {
+            return new TopoOrder(toList(queue, n), null);
+        }
+        return new TopoOrder(null, findCycle(g, indegree));
+    }
 
-    private static boolean dfsTopoHelper(int v, Graph g, boolean[] seen, boolean[] onStack, Deque<Integer> stack) {
-        seen[v] = true;
-        onStack[v] = true;
+    // Every vertex Kahn left behind still has a leftover predecessor, so following predecessors must loop.
 
-        // Sort neighbors 
-        List<Integer> neighbors = new ArrayList<>(g.outNeighbors(v));
-        Collections.sort(neighbors);
-        for (int u : neighbors) {
-            if (onStack[u]) {
-                return false; // Cycle found
+    private static List<Integer> findCycle(IndexedGraph g, int[] indegree) {
+        int n = g.getSize();
+        int[] pred = new int[n];
+        int start = -1;
+        for (int u = 0; u < n; u++) {
+            if (indegree[u] == 0) {
+                continue;
+            }
+            start = u;
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                if (indegree[v] > 0) {
+                    pred[v] = u;
+                }
             }
-            if (!seen[u]) {
-                boolean acyclic = dfsTopoHelper(u, g, seen, onStack, stack);
-                if (!acyclic) {
-                    return false;
+        }
+
+        // Walk back n steps so we are certainly inside the loop, then collect it once
+        int at = start;
+        for (int i = 0; i < n; i++) {
+            at = pred[at];
+        }
+        int[] cycle = new int[n];
+        int len = 0;
+        int v = at;
+        do {
+            cycle[len++] = v;
+            v = pred[v];
+        } while (v != at);
+
+        // Collected against the edges, reverse into edge order
+        List<Integer> list = new ArrayList<>(len);
+        for (int i = len - 1; i >= 0; i--) {
+            list.add(cycle[i]);
+        }
+        return list;
+    }
+
+    // Traversals visit every vertex once and scan all of its out-edges, so their counters follow from the
+    // visit order afterwards instead of being kept in the loop. Restarts count as pushes too.
+
+    private static void recordTraversal(AlgoMetrics.Kind kind, long t0, GraphView g, List<Integer> order,
+                                        long pushes, long pops) {
+        long edges = 0;
+        for (int v : order) {
+            edges += g.outNeighbors(v).size();
+        }
+        long visited = order.size();
+        if (kind == AlgoMetrics.Kind.BFS) {
+            pushes = visited;
+            pops = visited;
+        }
+        AlgoMetrics.record(kind, t0, visited, edges, pushes, pops, pops - visited);
+    }
+
+    private static void recordTraversal(AlgoMetrics.Kind kind, long t0, IndexedGraph g, Traversal.Workspace ws) {
+        int[] order = ws.order();
+        long edges = 0;
+        for (int k = 0, count = ws.count(); k < count; k++) {
+            edges += g.degree(order[k]);
+        }
+        AlgoMetrics.record(kind, t0, ws.count(), edges, ws.count(), ws.count(), 0);
+    }
+
+    // Fewest-hop path from src to dst, stopping as soon as dst is discovered.
+
+    private static List<Integer> bfsPath(IndexedGraph g, int src, int dst) {
+        int n = g.getSize();
+        if (src < 0 || dst < 0 || src >= n || dst >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        int[] prev = new int[n];
+        int[] queue = new int[n];
+        Arrays.fill(prev, -2);
+        prev[src] = -1;
+        queue[0] = src;
+        int head = 0;
+        int tail = 1;
+        while (head < tail && prev[dst] == -2) {
+            int u = queue[head++];
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                if (prev[v] == -2) {
+                    prev[v] = u;
+                    queue[tail++] = v;
                 }
             }
         }
+        if (prev[dst] == -2) {
+            return new ArrayList<>();
+        }
+        return ShortestPathTree.buildPath(prev, dst);
+    }
+
+    // Boxes the first len entries of a into a list.
 
-        onStack[v] = false;
-        stack.push(v);
-        return true;
+    private static List<Integer> toList(int[] a, int len) {
+        List<Integer> list = new ArrayList<>(len);
+        for (int i = 0; i < len; i++) {
+            list.add(a[i]);
+        }
+        return list;
     }
 }
@@ -0,0 +1,138 @@
+import java.util.*;
+
+public class AlgoCache {
+
+    private final GraphView graph;
+    private final Map<Key, List<Integer>> results;
+    private long cachedVersion;
+    private long hits;
+    private long misses;
+
+    // Creates an LRU cache of Algo results on g holding at most capacity entries. Methods are synchronized
+    // so a background run and the UI thread can share one cache.
+
+    public AlgoCache(GraphView g, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        graph = g;
+        cachedVersion = g.getVersion();
+        results = new LinkedHashMap<Key, List<Integer>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Integer>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public GraphView getGraph() {
+        return graph;
+    }
+
+    public synchronized List<Integer> bfs(int start) {
+        Key key = new Key("bfs", start, 0, graph.getVersion());
+        if (lookup(key)) {
+            return results.get(key);
+        }
+        return store(key, Algo.bfs(graph, start));
+    }
+
+    public synchronized List<Integer> dfs(int start) {
+        Key key = new Key("dfs", start, 0, graph.getVersion());
+        if (lookup(key)) {
+            return results.get(key);
+        }
+        return store(key, Algo.dfs(graph, start));
+    }
+
+    public synchronized List<Integer> dijkstra(int src, int dst) {
+        Key key = new Key("dijkstra", src, dst, graph.getVersion());
+        if (lookup(key)) {
+            return results.get(key);
+        }
+        return store(key, Algo.dijkstra(graph, src, dst));
+    }
+
+    // Cached topo sort, a null result (graph is not a DAG) is cached too.
+
+    public synchronized List<Integer> toposort() {
+        Key key = new Key("toposort", 0, 0, graph.getVersion());
+        if (lookup(key)) {
+            return results.get(key);
+        }
+        return store(key, Algo.toposort(graph));
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    // Drops every cached result and resets the counters.
+
+    public synchronized void clear() {
+        results.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    // Counts a hit or miss for key, first dropping every entry if the graph changed since they were stored.
+
+    private boolean lookup(Key key) {
+        if (key.version != cachedVersion) {
+            results.clear();
+            cachedVersion = key.version;
+        }
+        if (results.containsKey(key)) {
+            hits++;
+            return true;
+        }
+        misses++;
+        return false;
+    }
+
+    // Caches a read-only copy of result so callers cannot corrupt later hits.
+
+    private List<Integer> store(Key key, List<Integer> result) {
+        List<Integer> value = result == null ? null : Collections.unmodifiableList(result);
+        results.put(key, value);
+        return value;
+    }
+
+    // Algorithm name, up to two vertex arguments and the graph version the result was computed on.
+
+    private static final class Key {
+        private final String algo;
+        private final int a;
+        private final int b;
+        private final long version;
+
+        Key(String algo, int a, int b, long version) {
+            this.algo = algo;
+            this.a = a;
+            this.b = b;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return a == k.a && b == k.b && version == k.version && algo.equals(k.algo);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(algo, a, b, version);
+        }
+    }
+}
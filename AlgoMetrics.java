@@ -0,0 +1,230 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Optional counters and latency histograms for bfs, dfs, dijkstra and toposort in Algo. Disabled by
+// default: instrumented methods keep their counts in local variables, which cost a register increment
+// at most, and only read the enabled flag once at the start and once at the end of a run. Nothing is
+// timed, allocated or shared unless enable() was called.
+//
+// Counters are cumulative per algorithm and thread-safe; last(kind) additionally keeps the most recent
+// run so a caller can show what a single call did.
+
+public final class AlgoMetrics {
+
+    public enum Kind {
+        BFS, DFS, DIJKSTRA, TOPOSORT
+    }
+
+    // Latency buckets: bucket b holds runs that took [2^(b-1), 2^b) ns, bucket 0 holds 0 ns
+    private static final int BUCKETS = 64;
+
+    // Counter slots per kind
+    private static final int RUNS = 0;
+    private static final int SETTLED = 1;
+    private static final int EDGES = 2;
+    private static final int PUSHES = 3;
+    private static final int POPS = 4;
+    private static final int STALE = 5;
+    private static final int NANOS = 6;
+    private static final int SLOTS = 7;
+
+    private static volatile boolean enabled = Boolean.getBoolean("algo.metrics");
+
+    private static final AtomicLongArray counters = new AtomicLongArray(Kind.values().length * SLOTS);
+    private static final AtomicLongArray histogram = new AtomicLongArray(Kind.values().length * BUCKETS);
+    private static final Run[] last = new Run[Kind.values().length];
+
+    private AlgoMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Starts recording, also possible at startup with -Dalgo.metrics=true.
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    // Start time for an instrumented run, 0 when disabled so the clock is never read.
+
+    static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Adds one finished run. Callers check isEnabled() first so disabled runs never get here.
+
+    static void record(Kind kind, long startNanos, long settled, long edges, long pushes, long pops,
+                       long stale) {
+        long nanos = startNanos == 0 ? 0 : Math.max(0, System.nanoTime() - startNanos);
+        int base = kind.ordinal() * SLOTS;
+        counters.incrementAndGet(base + RUNS);
+        counters.addAndGet(base + SETTLED, settled);
+        counters.addAndGet(base + EDGES, edges);
+        counters.addAndGet(base + PUSHES, pushes);
+        counters.addAndGet(base + POPS, pops);
+        counters.addAndGet(base + STALE, stale);
+        counters.addAndGet(base + NANOS, nanos);
+        histogram.incrementAndGet(kind.ordinal() * BUCKETS + bucket(nanos));
+        Run run = new Run(kind, settled, edges, pushes, pops, stale, nanos);
+        synchronized (last) {
+            last[kind.ordinal()] = run;
+        }
+    }
+
+    private static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    // Cumulative totals for kind since the last reset.
+
+    public static Run total(Kind kind) {
+        int base = kind.ordinal() * SLOTS;
+        return new Run(kind, counters.get(base + SETTLED), counters.get(base + EDGES), counters.get(base + PUSHES),
+            counters.get(base + POPS), counters.get(base + STALE), counters.get(base + NANOS));
+    }
+
+    public static long runs(Kind kind) {
+        return counters.get(kind.ordinal() * SLOTS + RUNS);
+    }
+
+    // The most recent run of kind, or null if none was recorded.
+
+    public static Run last(Kind kind) {
+        synchronized (last) {
+            return last[kind.ordinal()];
+        }
+    }
+
+    // Run counts per latency bucket, element b counting runs that took less than 2^b ns.
+
+    public static long[] histogram(Kind kind) {
+        long[] h = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            h[b] = histogram.get(kind.ordinal() * BUCKETS + b);
+        }
+        return h;
+    }
+
+    // Upper bound on the latency of the given fraction of runs, e.g. 0.99, to within a factor of two.
+
+    public static long percentileNanos(Kind kind, double fraction) {
+        long[] h = histogram(kind);
+        long total = 0;
+        for (long c : h) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += h[b];
+            if (seen >= Math.max(1, rank)) {
+                return b == 0 ? 0 : 1L << Math.min(62, b);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public static void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+        synchronized (last) {
+            Arrays.fill(last, null);
+        }
+    }
+
+    // One line per algorithm with its last run, cumulative totals and latency percentiles.
+
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Kind kind : Kind.values()) {
+            long runs = runs(kind);
+            sb.append(kind).append(": ");
+            if (runs == 0) {
+                sb.append("no runs\n");
+                continue;
+            }
+            sb.append("last ").append(last(kind)).append('\n');
+            sb.append("  ").append(runs).append(" runs, total ").append(total(kind));
+            sb.append(String.format(Locale.ROOT, ", p50 < %.3f ms, p99 < %.3f ms%n",
+                percentileNanos(kind, 0.5) / 1e6, percentileNanos(kind, 0.99) / 1e6));
+        }
+        return sb.toString();
+    }
+
+    // Counters of one run, or totals over many.
+
+    public static final class Run {
+        private final Kind kind;
+        private final long settled;
+        private final long edges;
+        private final long pushes;
+        private final long pops;
+        private final long stale;
+        private final long nanos;
+
+        Run(Kind kind, long settled, long edges, long pushes, long pops, long stale, long nanos) {
+            this.kind = kind;
+            this.settled = settled;
+            this.edges = edges;
+            this.pushes = pushes;
+            this.pops = pops;
+            this.stale = stale;
+            this.nanos = nanos;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        // Vertices visited by a traversal, or settled by Dijkstra.
+
+        public long getSettled() {
+            return settled;
+        }
+
+        // Out-edges examined.
+
+        public long getEdgesRelaxed() {
+            return edges;
+        }
+
+        // Queue, stack or heap insertions; decrease-key counts as a push.
+
+        public long getPushes() {
+            return pushes;
+        }
+
+        public long getPops() {
+            return pops;
+        }
+
+        // Popped entries that were outdated or already visited and got skipped.
+
+        public long getStaleSkipped() {
+            return stale;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d settled, %d edges, %d pushes, %d pops, %d stale, %.3f ms",
+                settled, edges, pushes, pops, stale, nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+// Progress reporting and cooperative cancellation for long Algo runs. A caller wraps the run in
+// run(...); Algo's main loops call checkpoint every CHECK_INTERVAL vertices, which reports how many
+// vertices are done and throws CancellationException once cancel() was called. Runs outside run(...)
+// pay one thread-local lookup per interval and nothing else.
+
+public final class AlgoProgress {
+
+    // Loops check in whenever their vertex count is a multiple of this, which must be a power of two
+    public static final int CHECK_INTERVAL = 1024;
+    static final int CHECK_MASK = CHECK_INTERVAL - 1;
+
+    private static final ThreadLocal<AlgoProgress> CURRENT = new ThreadLocal<>();
+
+    private final LongConsumer listener;
+    private volatile boolean cancelled;
+
+    // listener receives the number of vertices visited or settled so far, on the thread doing the run.
+    // May be null if only cancellation is wanted.
+
+    public AlgoProgress(LongConsumer listener) {
+        this.listener = listener;
+    }
+
+    // Asks the run to stop at its next checkpoint, safe to call from any thread.
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Runs body on the calling thread with this progress attached to every Algo call it makes.
+
+    public <T> T run(Callable<T> body) throws Exception {
+        AlgoProgress outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            if (cancelled) {
+                throw new CancellationException("Algorithm run cancelled");
+            }
+            return body.call();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    // Called by Algo loops with the vertices done so far.
+
+    static void checkpoint(long done) {
+        AlgoProgress p = CURRENT.get();
+        if (p == null) {
+            return;
+        }
+        if (p.cancelled) {
+            throw new CancellationException("Algorithm run cancelled");
+        }
+        if (p.listener != null) {
+            p.listener.accept(done);
+        }
+    }
+}
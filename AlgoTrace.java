@@ -0,0 +1,327 @@
+import java.util.*;
+
+// Step-by-step record of a traversal for replaying it forwards and backwards. Algo's traced overloads
+// append one int per event, the vertex shifted left by two with the event kind in the low bits, so a
+// trace of millions of events stays a single growable int array:
+//
+//   VISIT    a traversal outputs v          (bfs, dfs)
+//   ENQUEUE  v is reached for the first time and waits in the queue, stack or heap
+//   RELAX    an edge lowered dist[v] of a vertex that was already queued
+//   SETTLE   Dijkstra fixes the distance of v
+//
+// VISIT and SETTLE events are the steps a viewer moves through. The state at step k is the pair of
+// vertex sets done (visited or settled) and reached, after every event before step k + 1. Every
+// max(4096, n) events the recorder stores both sets as a checkpoint, and checkpoints never take more
+// than a quarter of the memory the events do. A Cursor seeking to an arbitrary step finds the
+// checkpoint before it by binary search, copies its two n-bit sets and replays up to one interval of
+// events, so a jump costs O(n). Moving one step with next or previous updates the state in place and
+// only touches that step's own events.
+
+public final class AlgoTrace {
+
+    public static final int VISIT = 0;
+    public static final int ENQUEUE = 1;
+    public static final int RELAX = 2;
+    public static final int SETTLE = 3;
+
+    private static final int MIN_INTERVAL = 4096;
+
+    private final int n;
+    private final int interval;
+    private int[] events = new int[64];
+    private int size;
+    private int steps;
+    // Bit s is set if step s + 1 was the first time its vertex was done, resp. reached, so a cursor can
+    // undo the step without knowing what came before it
+    private final BitSet firstDone = new BitSet();
+    private final BitSet firstReached = new BitSet();
+
+    // State after everything recorded so far, copied into each checkpoint
+    private final BitSet done;
+    private final BitSet reached;
+
+    // Checkpoint c holds the state before the event at cpEvent[c], which is step cpStep[c] + 1
+    private int[] cpStep = new int[8];
+    private int[] cpEvent = new int[8];
+    private BitSet[] cpDone = new BitSet[8];
+    private BitSet[] cpReached = new BitSet[8];
+    private int checkpoints;
+
+    // Creates an empty trace for a graph with n vertices.
+
+    public AlgoTrace(int n) {
+        if (n < 0 || n > (1 << 30)) {
+            throw new IllegalArgumentException("Vertex count out of range");
+        }
+        this.n = n;
+        interval = Math.max(MIN_INTERVAL, n);
+        done = new BitSet(n);
+        reached = new BitSet(n);
+        cpDone[0] = new BitSet(n);
+        cpReached[0] = new BitSet(n);
+        checkpoints = 1;
+    }
+
+    // A trace that visits the vertices of order one per step, for replaying a plain result list.
+
+    public static AlgoTrace ofOrder(int n, List<Integer> order) {
+        AlgoTrace trace = new AlgoTrace(n);
+        for (int v : order) {
+            trace.visit(v);
+        }
+        return trace;
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    // Number of events recorded.
+
+    public int size() {
+        return size;
+    }
+
+    // Number of VISIT and SETTLE events recorded.
+
+    public int steps() {
+        return steps;
+    }
+
+    public int kind(int event) {
+        checkEvent(event);
+        return events[event] & 3;
+    }
+
+    public int vertex(int event) {
+        checkEvent(event);
+        return events[event] >>> 2;
+    }
+
+    public void visit(int v) {
+        step(v, VISIT);
+    }
+
+    public void settle(int v) {
+        step(v, SETTLE);
+    }
+
+    // Records v as reached unless it already was, so callers may report every push.
+
+    public void enqueue(int v) {
+        if (!reached.get(v)) {
+            append(v, ENQUEUE);
+            reached.set(v);
+        }
+    }
+
+    public void relax(int v) {
+        append(v, RELAX);
+    }
+
+    // Memory held by the events and checkpoints, in bytes.
+
+    public long memoryBytes() {
+        long bits = 0;
+        for (int c = 0; c < checkpoints; c++) {
+            bits += cpDone[c].size() + cpReached[c].size();
+        }
+        bits += firstDone.size() + firstReached.size();
+        return 4L * events.length + bits / 8;
+    }
+
+    // A cursor at step 0. Each cursor keeps its own copy of the state, so several can share a trace.
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void step(int v, int kind) {
+        if (size - cpEvent[checkpoints - 1] >= interval) {
+            checkpoint();
+        }
+        append(v, kind);
+        firstDone.set(steps, !done.get(v));
+        firstReached.set(steps, !reached.get(v));
+        steps++;
+        done.set(v);
+        reached.set(v);
+    }
+
+    private void append(int v, int kind) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = (v << 2) | kind;
+    }
+
+    private void checkpoint() {
+        if (checkpoints == cpStep.length) {
+            int capacity = checkpoints * 2;
+            cpStep = Arrays.copyOf(cpStep, capacity);
+            cpEvent = Arrays.copyOf(cpEvent, capacity);
+            cpDone = Arrays.copyOf(cpDone, capacity);
+            cpReached = Arrays.copyOf(cpReached, capacity);
+        }
+        cpStep[checkpoints] = steps;
+        cpEvent[checkpoints] = size;
+        cpDone[checkpoints] = (BitSet) done.clone();
+        cpReached[checkpoints] = (BitSet) reached.clone();
+        checkpoints++;
+    }
+
+    // Last checkpoint at or before step k.
+
+    private int checkpointFor(int k) {
+        int lo = 0;
+        int hi = checkpoints - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (cpStep[mid] <= k) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private void checkEvent(int event) {
+        if (event < 0 || event >= size) {
+            throw new IndexOutOfBoundsException("Event " + event + " of " + size);
+        }
+    }
+
+    // Position in the trace with the state at that step. Reads the trace as it is when seek is called,
+    // so a cursor can follow a trace that is still being recorded on the same thread.
+
+    public final class Cursor {
+        private final BitSet curDone = new BitSet(n);
+        private final BitSet curReached = new BitSet(n);
+        private int step;
+        // Next event to apply, always a step event or the end of the trace
+        private int event;
+        private int checkpoint;
+
+        private Cursor() {
+            advance(0);
+        }
+
+        public int step() {
+            return step;
+        }
+
+        // Index of the next event to apply; the events before it make up the current state. The
+        // events between two positions are the vertices whose state a move changed.
+
+        public int event() {
+            return event;
+        }
+
+        public boolean isDone(int v) {
+            return curDone.get(v);
+        }
+
+        // True for vertices that were queued or done by this step.
+
+        public boolean isReached(int v) {
+            return curReached.get(v);
+        }
+
+        // Vertex of the latest step, -1 at step 0.
+
+        public int current() {
+            return step == 0 ? -1 : events[lastStepEvent()] >>> 2;
+        }
+
+        // Moves to step k, 0 <= k <= steps(). Forward moves within the same checkpoint interval continue
+        // from the current state; anything else restarts from the nearest checkpoint before k.
+
+        public void seek(int k) {
+            if (k < 0 || k > steps) {
+                throw new IndexOutOfBoundsException("Step " + k + " of " + steps);
+            }
+            int c = checkpointFor(k);
+            if (k < step || c != checkpoint) {
+                curDone.clear();
+                curDone.or(cpDone[c]);
+                curReached.clear();
+                curReached.or(cpReached[c]);
+                step = cpStep[c];
+                event = cpEvent[c];
+                checkpoint = c;
+            }
+            advance(k);
+        }
+
+        public boolean next() {
+            if (step == steps) {
+                return false;
+            }
+            seek(step + 1);
+            return true;
+        }
+
+        // Undoes the latest step in place: its vertex and the vertices it enqueued lose the state the
+        // step gave them.
+
+        public boolean previous() {
+            if (step == 0) {
+                return false;
+            }
+            int last = lastStepEvent();
+            for (int i = last + 1; i < event; i++) {
+                if ((events[i] & 3) == ENQUEUE) {
+                    curReached.clear(events[i] >>> 2);
+                }
+            }
+            int v = events[last] >>> 2;
+            step--;
+            if (firstDone.get(step)) {
+                curDone.clear(v);
+            }
+            if (firstReached.get(step)) {
+                curReached.clear(v);
+            }
+            event = last;
+            checkpoint = checkpointFor(step);
+            return true;
+        }
+
+        // Applies events up to just before step k + 1.
+
+        private void advance(int k) {
+            int i = event;
+            while (i < size) {
+                int e = events[i];
+                int kind = e & 3;
+                boolean isStep = kind == VISIT || kind == SETTLE;
+                if (isStep && step == k) {
+                    break;
+                }
+                int v = e >>> 2;
+                if (kind != RELAX) {
+                    curReached.set(v);
+                }
+                if (isStep) {
+                    curDone.set(v);
+                    step++;
+                }
+                i++;
+            }
+            event = i;
+        }
+
+        private int lastStepEvent() {
+            for (int i = event - 1; ; i--) {
+                int kind = events[i] & 3;
+                if (kind == VISIT || kind == SETTLE) {
+                    return i;
+                }
+            }
+        }
+    }
+}
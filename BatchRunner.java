@@ -0,0 +1,219 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Headless entry point: loads a graph, runs the queries in a query file against it and streams one
+// result line per query. Touches nothing from java.awt or javax.swing, so it starts fast and runs on
+// machines without a display.
+//
+// Usage:
+//   java -cp target/classes BatchRunner <graph> <queries> [-o <output>] [--sizes]
+//
+// The graph is a binary file written by GraphFile, recognized by its header, or a text file in any
+// GraphImporter format, picked by extension. The query file has one query per line, blank lines and
+// lines starting with '#' are skipped:
+//   bfs <start>             traversal order, continuing into unreached components like Algo.bfs
+//   dfs <start>             same for Algo.dfs
+//   dijkstra <src> <dst>    shortest path, empty if dst is unreachable
+//   topo                    topological order, or "cycle" and the vertices of a cycle that prevents one
+// Each result line is the query, a tab and the vertices separated by spaces; --sizes prints only how
+// many vertices there are. Results go to stdout unless -o names a file. Timing, throughput and the
+// AlgoMetrics counters for the run are printed to stderr once all queries are done.
+
+public final class BatchRunner {
+
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private final IndexedGraph graph;
+    private final boolean sizesOnly;
+    private TopoOrder topo;
+    // Set by answer when the result is a cycle rather than an order
+    private boolean cycle;
+
+    private long queries;
+    private long vertices;
+    private long algoNanos;
+
+    BatchRunner(IndexedGraph graph, boolean sizesOnly) {
+        this.graph = graph;
+        this.sizesOnly = sizesOnly;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path graphFile = null;
+        Path queryFile = null;
+        Path outFile = null;
+        boolean sizesOnly = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                    if (++i == args.length) {
+                        usage("-o needs a file name");
+                    }
+                    outFile = Path.of(args[i]);
+                    break;
+                case "--sizes":
+                    sizesOnly = true;
+                    break;
+                default:
+                    if (graphFile == null) {
+                        graphFile = Path.of(args[i]);
+                    } else if (queryFile == null) {
+                        queryFile = Path.of(args[i]);
+                    } else {
+                        usage("Unexpected argument " + args[i]);
+                    }
+            }
+        }
+        if (queryFile == null) {
+            usage("Graph and query files are required");
+        }
+
+        AlgoMetrics.enable();
+        long t0 = System.nanoTime();
+        IndexedGraph g = load(graphFile);
+        long loadNanos = System.nanoTime() - t0;
+        System.err.printf(Locale.ROOT, "loaded %s: n=%d m=%d in %.1f ms%n",
+            graphFile, g.getSize(), g.edgeCount(), loadNanos / 1e6);
+
+        BatchRunner runner = new BatchRunner(g, sizesOnly);
+        long t1 = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(queryFile, StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(outFile == null
+                 ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                 : Files.newBufferedWriter(outFile, StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            runner.run(in, out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(queryFile + ": " + e.getMessage());
+            System.exit(2);
+        }
+        runner.printStats(System.nanoTime() - t1);
+    }
+
+    // Opens a GraphFile directly, anything else goes through GraphImporter.
+
+    static IndexedGraph load(Path file) throws IOException {
+        byte[] magic = new byte[4];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(magic, 0, 4);
+        }
+        int header = (magic[0] & 0xff) | (magic[1] & 0xff) << 8 | (magic[2] & 0xff) << 16 | (magic[3] & 0xff) << 24;
+        if (read == 4 && header == GraphFile.MAGIC) {
+            return GraphFile.open(file);
+        }
+        return new GraphImporter(GraphImporter.Format.of(file)).read(file);
+    }
+
+    // Runs every query in in, writing its result line to out as soon as it is done.
+    // Throws IllegalArgumentException naming the line of the first malformed query.
+
+    void run(BufferedReader in, Writer out) throws IOException {
+        int lineNo = 0;
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            lineNo++;
+            String query = line.trim();
+            if (query.isEmpty() || query.startsWith("#")) {
+                continue;
+            }
+            List<Integer> result;
+            try {
+                result = answer(query.split("\\s+"));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + lineNo + ": " + e.getMessage(), e);
+            }
+            queries++;
+            vertices += result.size();
+            out.write(query);
+            out.write('\t');
+            if (cycle) {
+                out.write("cycle ");
+            }
+            if (sizesOnly) {
+                out.write(Integer.toString(result.size()));
+            } else {
+                for (int k = 0; k < result.size(); k++) {
+                    if (k > 0) {
+                        out.write(' ');
+                    }
+                    out.write(Integer.toString(result.get(k)));
+                }
+            }
+            out.write('\n');
+        }
+    }
+
+    private List<Integer> answer(String[] q) {
+        String op = q[0].toLowerCase(Locale.ROOT);
+        long t0 = System.nanoTime();
+        cycle = false;
+        List<Integer> result;
+        switch (op) {
+            case "bfs":
+                result = Algo.bfs(graph, vertex(q, 1, 2));
+                break;
+            case "dfs":
+                result = Algo.dfs(graph, vertex(q, 1, 2));
+                break;
+            case "dijkstra":
+                result = Algo.dijkstraIndexed(graph, vertex(q, 1, 3), vertex(q, 2, 3));
+                break;
+            case "topo":
+                arity(q, 1);
+                // The graph never changes during a run, so later topo queries reuse the first answer
+                if (topo == null) {
+                    topo = Algo.toposortKahn(graph);
+                }
+                cycle = !topo.isDag();
+                result = cycle ? topo.getCycle() : topo.getOrder();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown query " + q[0]);
+        }
+        algoNanos += System.nanoTime() - t0;
+        return result;
+    }
+
+    // Argument i of a query that takes length - 1 vertex arguments.
+
+    private int vertex(String[] q, int i, int length) {
+        arity(q, length);
+        int v;
+        try {
+            v = Integer.parseInt(q[i]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a vertex: " + q[i]);
+        }
+        if (v < 0 || v >= graph.getSize()) {
+            throw new IllegalArgumentException("Vertex index out of range: " + v);
+        }
+        return v;
+    }
+
+    private static void arity(String[] q, int length) {
+        if (q.length != length) {
+            throw new IllegalArgumentException(q[0] + " takes " + (length - 1) + " argument"
+                + (length == 2 ? "" : "s"));
+        }
+    }
+
+    private void printStats(long wallNanos) {
+        System.err.printf(Locale.ROOT, "%d queries in %.1f ms (%.1f ms in algorithms), %.1f queries/s, "
+                + "%d result vertices%n",
+            queries, wallNanos / 1e6, algoNanos / 1e6, queries * 1e9 / Math.max(1, wallNanos), vertices);
+        System.err.print(AlgoMetrics.summary());
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: java -cp target/classes BatchRunner <graph> <queries> [-o <output>] [--sizes]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Answers many (src, dst) queries at once. Queries are grouped by source so each source runs a single
+// Dijkstra that stops as soon as all of its destinations are settled. One worker per pool thread takes
+// sources off a shared cursor and keeps its own dist/prev/heap workspace for every source it runs, so
+// a batch allocates O(n) per worker rather than per query and workers never share mutable state.
+
+public final class BatchShortestPaths {
+
+    private BatchShortestPaths() {
+    }
+
+    // Shortest paths for every query on the common pool, see paths(g, src, dst, pool).
+
+    public static List<List<Integer>> paths(IndexedGraph g, int[] src, int[] dst) {
+        return paths(g, src, dst, ForkJoinPool.commonPool());
+    }
+
+    // Path for query i is element i of the result, empty if dst[i] is unreachable. Paths are the same
+    // ones Algo.dijkstraIndexed(g, src[i], dst[i]) returns.
+
+    public static List<List<Integer>> paths(IndexedGraph g, int[] src, int[] dst, ForkJoinPool pool) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Integer>[] out = new List[src.length];
+        run(g, src, dst, pool, new int[src.length], out);
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    // Distances for every query on the common pool, see distances(g, src, dst, pool).
+
+    public static int[] distances(IndexedGraph g, int[] src, int[] dst) {
+        return distances(g, src, dst, ForkJoinPool.commonPool());
+    }
+
+    // Distance for query i is element i of the result, Integer.MAX_VALUE if dst[i] is unreachable.
+    // Skips path reconstruction, which is what a distance-matrix job wants.
+
+    public static int[] distances(IndexedGraph g, int[] src, int[] dst, ForkJoinPool pool) {
+        int[] out = new int[src.length];
+        run(g, src, dst, pool, out, null);
+        return out;
+    }
+
+    // Each query's answer goes to its own slot of dist and paths, so workers write disjoint elements and
+    // joining their tasks publishes the results.
+
+    private static void run(IndexedGraph g, int[] src, int[] dst, ForkJoinPool pool, int[] dist,
+                            List<Integer>[] paths) {
+        int n = g.getSize();
+        int q = src.length;
+        if (dst.length != q) {
+            throw new IllegalArgumentException("Source and destination arrays differ in length");
+        }
+        for (int i = 0; i < q; i++) {
+            if (src[i] < 0 || dst[i] < 0 || src[i] >= n || dst[i] >= n) {
+                throw new IllegalArgumentException("Vertex index out of range");
+            }
+        }
+        if (q == 0) {
+            return;
+        }
+
+        // Query indices ordered by source; groupStart[k] is where the k-th distinct source begins
+        long[] packed = new long[q];
+        for (int i = 0; i < q; i++) {
+            packed[i] = ((long) src[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] order = new int[q];
+        int[] groupStart = new int[q + 1];
+        int groups = 0;
+        for (int k = 0; k < q; k++) {
+            order[k] = (int) packed[k];
+            if (k == 0 || (int) (packed[k] >>> 32) != (int) (packed[k - 1] >>> 32)) {
+                groupStart[groups++] = k;
+            }
+        }
+        groupStart[groups] = q;
+        int groupCount = groups;
+
+        AtomicInteger cursor = new AtomicInteger();
+        Runnable worker = () -> {
+            Workspace ws = new Workspace(n);
+            for (int k = cursor.getAndIncrement(); k < groupCount; k = cursor.getAndIncrement()) {
+                ws.solve(g, src, dst, order, groupStart[k], groupStart[k + 1], dist, paths);
+            }
+        };
+
+        int workers = Math.min(pool.getParallelism(), groupCount);
+        if (workers <= 1) {
+            worker.run();
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(pool.submit(worker));
+        }
+        for (ForkJoinTask<?> t : tasks) {
+            t.join();
+        }
+    }
+
+    // Per-worker search state, reset between sources through the list of vertices the last run touched.
+
+    private static final class Workspace {
+        private final int[] dist;
+        private final int[] prev;
+        private final IndexedHeap heap;
+        private final int[] touched;
+        private int touchedCount;
+        // mark[v] == stamp means v is a destination of the current source that is not settled yet
+        private final int[] mark;
+        private int stamp;
+
+        Workspace(int n) {
+            dist = new int[n];
+            prev = new int[n];
+            heap = new IndexedHeap(n, 4);
+            touched = new int[n];
+            mark = new int[n];
+            Arrays.fill(dist, Integer.MAX_VALUE);
+        }
+
+        // Runs Dijkstra from the shared source of queries order[from..to) until all their destinations
+        // are settled, then fills in their answers.
+
+        void solve(IndexedGraph g, int[] src, int[] dst, int[] order, int from, int to, int[] outDist,
+                   List<Integer>[] outPaths) {
+            reset();
+            stamp++;
+            int remaining = 0;
+            for (int k = from; k < to; k++) {
+                int d = dst[order[k]];
+                if (mark[d] != stamp) {
+                    mark[d] = stamp;
+                    remaining++;
+                }
+            }
+
+            int s = src[order[from]];
+            dist[s] = 0;
+            prev[s] = -1;
+            touched[touchedCount++] = s;
+            heap.pushOrDecrease(s, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                if (mark[u] == stamp) {
+                    mark[u] = 0;
+                    if (--remaining == 0) {
+                        break;
+                    }
+                }
+                int du = dist[u];
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int v = g.target(i);
+                    int alt = du + g.weight(i);
+                    if (alt < dist[v]) {
+                        if (dist[v] == Integer.MAX_VALUE) {
+                            touched[touchedCount++] = v;
+                        }
+                        dist[v] = alt;
+                        prev[v] = u;
+                        heap.pushOrDecrease(v, alt);
+                    }
+                }
+            }
+
+            for (int k = from; k < to; k++) {
+                int i = order[k];
+                int d = dst[i];
+                outDist[i] = dist[d];
+                if (outPaths != null) {
+                    outPaths[i] = dist[d] == Integer.MAX_VALUE
+                        ? new ArrayList<>()
+                        : ShortestPathTree.buildPath(prev, d);
+                }
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Integer.MAX_VALUE;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.*;
+
+public final class BidirectionalDijkstra {
+
+    private final IndexedGraph g;
+    private final IndexedGraph rev;
+    private final int[] distF;
+    private final int[] distB;
+    private final int[] prevF;
+    private final int[] nextB;
+    private final IndexedHeap heapF;
+    private final IndexedHeap heapB;
+
+    // Vertices whose dist entries were written by the last query, so the next one resets only those
+    private final int[] touched;
+    private int touchedCount;
+    private int settled;
+    private long distance = -1;
+
+    // Prepares reusable search state for point-to-point queries on g, building g.reverse() if needed.
+
+    public BidirectionalDijkstra(IndexedGraph g) {
+        this.g = g;
+        rev = g.reverse();
+        int n = g.getSize();
+        distF = new int[n];
+        distB = new int[n];
+        prevF = new int[n];
+        nextB = new int[n];
+        Arrays.fill(distF, Integer.MAX_VALUE);
+        Arrays.fill(distB, Integer.MAX_VALUE);
+        heapF = new IndexedHeap(n, 4);
+        heapB = new IndexedHeap(n, 4);
+        touched = new int[n];
+    }
+
+    // Shortest path from src to dst, searching forward from src and backward from dst over reverse edges
+    // and stopping once the two frontiers' smallest keys add up to the best meeting cost seen. The cost
+    // always equals Algo.dijkstra's, the path itself can differ only when several shortest paths tie.
+
+    public List<Integer> path(int src, int dst) {
+        int n = g.getSize();
+        if (src < 0 || dst < 0 || src >= n || dst >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        reset();
+        if (src == dst) {
+            distance = 0;
+            return new ArrayList<>(List.of(src));
+        }
+
+        touch(src);
+        touch(dst);
+        distF[src] = 0;
+        prevF[src] = -1;
+        distB[dst] = 0;
+        nextB[dst] = -1;
+        heapF.pushOrDecrease(src, 0);
+        heapB.pushOrDecrease(dst, 0);
+
+        // Best path found so far is src ~> meetU -> meetV ~> dst
+        long best = Long.MAX_VALUE;
+        int meetU = -1;
+        int meetV = -1;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+            int topF = heapF.peekKey();
+            int topB = heapB.peekKey();
+            if ((long) topF + topB >= best) {
+                break;
+            }
+            settled++;
+            if (topF <= topB) {
+                int u = heapF.poll();
+                int du = distF[u];
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int v = g.target(i);
+                    int alt = du + g.weight(i);
+                    if (alt < distF[v]) {
+                        if (distF[v] == Integer.MAX_VALUE && distB[v] == Integer.MAX_VALUE) {
+                            touch(v);
+                        }
+                        distF[v] = alt;
+                        prevF[v] = u;
+                        heapF.pushOrDecrease(v, alt);
+                    }
+                    if (distB[v] != Integer.MAX_VALUE && (long) alt + distB[v] < best) {
+                        best = (long) alt + distB[v];
+                        meetU = u;
+                        meetV = v;
+                    }
+                }
+            } else {
+                int v = heapB.poll();
+                int dv = distB[v];
+                for (int i = rev.start(v), end = rev.end(v); i < end; i++) {
+                    int u = rev.target(i);
+                    int alt = dv + rev.weight(i);
+                    if (alt < distB[u]) {
+                        if (distF[u] == Integer.MAX_VALUE && distB[u] == Integer.MAX_VALUE) {
+                            touch(u);
+                        }
+                        distB[u] = alt;
+                        nextB[u] = v;
+                        heapB.pushOrDecrease(u, alt);
+                    }
+                    if (distF[u] != Integer.MAX_VALUE && (long) alt + distF[u] < best) {
+                        best = (long) alt + distF[u];
+                        meetU = u;
+                        meetV = v;
+                    }
+                }
+            }
+        }
+
+        if (meetU == -1) {
+            return new ArrayList<>();
+        }
+        distance = best;
+        List<Integer> path = ShortestPathTree.buildPath(prevF, meetU);
+        for (int at = meetV; at != -1; at = nextB[at]) {
+            path.add(at);
+        }
+        return removeLoops(path);
+    }
+
+    // Zero-weight edges can let the two halves share a vertex, cut out the zero-cost loop between repeats.
+
+    static List<Integer> removeLoops(List<Integer> path) {
+        Map<Integer, Integer> index = new HashMap<>();
+        List<Integer> out = new ArrayList<>(path.size());
+        for (int v : path) {
+            Integer at = index.get(v);
+            if (at == null) {
+                index.put(v, out.size());
+                out.add(v);
+                continue;
+            }
+            while (out.size() > at + 1) {
+                index.remove(out.remove(out.size() - 1));
+            }
+        }
+        return out;
+    }
+
+    // Cost of the path returned by the last query, or -1 if there was none.
+
+    public long distance() {
+        return distance;
+    }
+
+    // Vertices settled by the last query across both directions.
+
+    public int settled() {
+        return settled;
+    }
+
+    private void touch(int v) {
+        touched[touchedCount++] = v;
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            distF[v] = Integer.MAX_VALUE;
+            distB[v] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+        heapF.clear();
+        heapB.clear();
+        settled = 0;
+        distance = -1;
+    }
+}
@@ -0,0 +1,609 @@
+import java.util.*;
+
+// Contraction hierarchy for repeated point-to-point queries on a static weighted graph. Preprocessing
+// removes vertices one at a time, least important first, and adds a shortcut u -> w wherever removing v
+// would break the only shortest path u -> v -> w. A query then runs a bidirectional Dijkstra that only
+// climbs towards more important vertices, which settles a few hundred vertices on road-like graphs
+// instead of a large fraction of the graph, and unpacks shortcuts back into original edges.
+//
+// Query state is reused between calls, so one instance answers one query at a time.
+
+public final class ContractionHierarchy {
+
+    // Witness searches give up after settling this many vertices and keep the shortcut, which is
+    // never wrong, just redundant. Priority estimates use a tighter limit than actual contraction.
+    private static final int ESTIMATE_SETTLE_LIMIT = 64;
+    private static final int CONTRACT_SETTLE_LIMIT = 512;
+
+    private final int n;
+    private final int[] rank;
+    private final int shortcuts;
+    private final long preprocessNanos;
+
+    // Upward edges in CSR form: fwd holds u -> w with rank[u] < rank[w] under u, bwd holds u -> w with
+    // rank[u] > rank[w] under w. Targets are sorted per vertex; mid is the contracted vertex a shortcut
+    // skips, -1 for original edges.
+    private final int[] fwdOffsets;
+    private final int[] fwdTargets;
+    private final int[] fwdWeights;
+    private final int[] fwdMid;
+    private final int[] bwdOffsets;
+    private final int[] bwdTargets;
+    private final int[] bwdWeights;
+    private final int[] bwdMid;
+
+    private final int[] distF;
+    private final int[] distB;
+    private final int[] prevF;
+    private final int[] nextB;
+    private final IndexedHeap heapF;
+    private final IndexedHeap heapB;
+    private final int[] touched;
+    private int touchedCount;
+    private int settled;
+    private long distance = -1;
+
+    public ContractionHierarchy(Graph g) {
+        this(g.freeze());
+    }
+
+    // Contracts every vertex of g. Takes a while on large graphs, see getPreprocessNanos().
+
+    public ContractionHierarchy(IndexedGraph g) {
+        long t0 = System.nanoTime();
+        n = g.getSize();
+        Contractor c = new Contractor(g);
+        c.contractAll();
+        rank = c.rank;
+        shortcuts = c.shortcuts;
+
+        fwdOffsets = new int[n + 1];
+        bwdOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            fwdOffsets[v + 1] = fwdOffsets[v] + c.upCount[v];
+            bwdOffsets[v + 1] = bwdOffsets[v] + c.downCount[v];
+        }
+        fwdTargets = new int[fwdOffsets[n]];
+        fwdWeights = new int[fwdOffsets[n]];
+        fwdMid = new int[fwdOffsets[n]];
+        bwdTargets = new int[bwdOffsets[n]];
+        bwdWeights = new int[bwdOffsets[n]];
+        bwdMid = new int[bwdOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            pack(c.upTarget[v], c.upWeight[v], c.upMid[v], c.upCount[v], fwdOffsets[v], fwdTargets, fwdWeights, fwdMid);
+            pack(c.downTarget[v], c.downWeight[v], c.downMid[v], c.downCount[v], bwdOffsets[v], bwdTargets,
+                bwdWeights, bwdMid);
+        }
+
+        distF = new int[n];
+        distB = new int[n];
+        prevF = new int[n];
+        nextB = new int[n];
+        Arrays.fill(distF, Integer.MAX_VALUE);
+        Arrays.fill(distB, Integer.MAX_VALUE);
+        heapF = new IndexedHeap(n, 4);
+        heapB = new IndexedHeap(n, 4);
+        touched = new int[n];
+        preprocessNanos = System.nanoTime() - t0;
+    }
+
+    // Copies one vertex's edges into CSR slots starting at from, sorted by target via packed longs.
+
+    private static void pack(int[] t, int[] w, int[] mid, int count, int from, int[] targets, int[] weights,
+                             int[] mids) {
+        long[] packed = new long[count];
+        for (int k = 0; k < count; k++) {
+            packed[k] = ((long) t[k] << 32) | k;
+        }
+        Arrays.sort(packed);
+        for (int k = 0; k < count; k++) {
+            int src = (int) packed[k];
+            targets[from + k] = t[src];
+            weights[from + k] = w[src];
+            mids[from + k] = mid[src];
+        }
+    }
+
+    // Shortest path from src to dst with the same cost as Algo.dijkstra, empty if dst is unreachable.
+    // Both searches only follow edges to higher-ranked vertices; each stops once its smallest key
+    // reaches the best meeting cost, since every shortest path has an up-then-down form.
+
+    public List<Integer> path(int src, int dst) {
+        if (src < 0 || dst < 0 || src >= n || dst >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        reset();
+        if (src == dst) {
+            distance = 0;
+            return new ArrayList<>(List.of(src));
+        }
+
+        touch(src);
+        touch(dst);
+        distF[src] = 0;
+        prevF[src] = -1;
+        distB[dst] = 0;
+        nextB[dst] = -1;
+        heapF.pushOrDecrease(src, 0);
+        heapB.pushOrDecrease(dst, 0);
+
+        long best = Long.MAX_VALUE;
+        int meet = -1;
+        while (true) {
+            boolean forward = !heapF.isEmpty() && heapF.peekKey() < best;
+            boolean backward = !heapB.isEmpty() && heapB.peekKey() < best;
+            if (!forward && !backward) {
+                break;
+            }
+            if (forward && backward) {
+                forward = heapF.peekKey() <= heapB.peekKey();
+            }
+            settled++;
+            if (forward) {
+                int u = heapF.poll();
+                int du = distF[u];
+                if (distB[u] != Integer.MAX_VALUE && (long) du + distB[u] < best) {
+                    best = (long) du + distB[u];
+                    meet = u;
+                }
+                if (stalled(u, distF, bwdOffsets, bwdTargets, bwdWeights)) {
+                    continue;
+                }
+                for (int i = fwdOffsets[u], end = fwdOffsets[u + 1]; i < end; i++) {
+                    int v = fwdTargets[i];
+                    int alt = du + fwdWeights[i];
+                    if (alt < distF[v]) {
+                        if (distF[v] == Integer.MAX_VALUE && distB[v] == Integer.MAX_VALUE) {
+                            touch(v);
+                        }
+                        distF[v] = alt;
+                        prevF[v] = u;
+                        heapF.pushOrDecrease(v, alt);
+                    }
+                }
+            } else {
+                int v = heapB.poll();
+                int dv = distB[v];
+                if (distF[v] != Integer.MAX_VALUE && (long) dv + distF[v] < best) {
+                    best = (long) dv + distF[v];
+                    meet = v;
+                }
+                if (stalled(v, distB, fwdOffsets, fwdTargets, fwdWeights)) {
+                    continue;
+                }
+                for (int i = bwdOffsets[v], end = bwdOffsets[v + 1]; i < end; i++) {
+                    int u = bwdTargets[i];
+                    int alt = dv + bwdWeights[i];
+                    if (alt < distB[u]) {
+                        if (distF[u] == Integer.MAX_VALUE && distB[u] == Integer.MAX_VALUE) {
+                            touch(u);
+                        }
+                        distB[u] = alt;
+                        nextB[u] = v;
+                        heapB.pushOrDecrease(u, alt);
+                    }
+                }
+            }
+        }
+
+        if (meet == -1) {
+            return new ArrayList<>();
+        }
+        distance = best;
+        List<Integer> hops = ShortestPathTree.buildPath(prevF, meet);
+        for (int at = nextB[meet]; at != -1; at = nextB[at]) {
+            hops.add(at);
+        }
+        List<Integer> path = new ArrayList<>();
+        path.add(src);
+        for (int k = 1; k < hops.size(); k++) {
+            unpack(hops.get(k - 1), hops.get(k), path);
+        }
+        return BidirectionalDijkstra.removeLoops(path);
+    }
+
+    // Stall-on-demand: if a higher-ranked vertex already reached by this search has an edge down to v
+    // that beats dist[v], v is not on any shortest up-path and its edges need not be relaxed. The down
+    // edges of the forward search are exactly the backward search's up edges and vice versa.
+
+    private static boolean stalled(int v, int[] dist, int[] offsets, int[] targets, int[] weights) {
+        int dv = dist[v];
+        for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) {
+            int x = dist[targets[i]];
+            if (x != Integer.MAX_VALUE && (long) x + weights[i] < dv) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Appends the original vertices after a on the edge a -> b, expanding nested shortcuts with an
+    // explicit stack since chains of shortcuts can be deep.
+
+    private void unpack(int a, int b, List<Integer> path) {
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = a;
+        stack[top++] = b;
+        while (top > 0) {
+            int y = stack[--top];
+            int x = stack[--top];
+            int m = midOf(x, y);
+            if (m == -1) {
+                path.add(y);
+                continue;
+            }
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = m;
+            stack[top++] = y;
+            stack[top++] = x;
+            stack[top++] = m;
+        }
+    }
+
+    // The edge a -> b lives under whichever endpoint was contracted first.
+
+    private int midOf(int a, int b) {
+        if (rank[a] < rank[b]) {
+            int i = Arrays.binarySearch(fwdTargets, fwdOffsets[a], fwdOffsets[a + 1], b);
+            return fwdMid[i];
+        }
+        int i = Arrays.binarySearch(bwdTargets, bwdOffsets[b], bwdOffsets[b + 1], a);
+        return bwdMid[i];
+    }
+
+    public int getSize() {
+        return n;
+    }
+
+    // Position of v in the contraction order, higher means more important.
+
+    public int rank(int v) {
+        return rank[v];
+    }
+
+    // Number of shortcut edges the hierarchy added on top of the original ones.
+
+    public int shortcutCount() {
+        return shortcuts;
+    }
+
+    // Bytes held by the hierarchy's arrays, query workspace included.
+
+    public long memoryBytes() {
+        long ints = (long) rank.length + fwdOffsets.length + bwdOffsets.length
+            + 3L * fwdTargets.length + 3L * bwdTargets.length
+            + 4L * n + touched.length
+            + 3L * heapF.capacity() + 3L * heapB.capacity();
+        return 4 * ints;
+    }
+
+    public long getPreprocessNanos() {
+        return preprocessNanos;
+    }
+
+    // Cost of the path returned by the last query, or -1 if there was none.
+
+    public long distance() {
+        return distance;
+    }
+
+    // Vertices settled by the last query across both directions.
+
+    public int settled() {
+        return settled;
+    }
+
+    private void touch(int v) {
+        touched[touchedCount++] = v;
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            distF[v] = Integer.MAX_VALUE;
+            distB[v] = Integer.MAX_VALUE;
+        }
+        touchedCount = 0;
+        heapF.clear();
+        heapB.clear();
+        settled = 0;
+        distance = -1;
+    }
+
+    // Preprocessing state: the remaining graph as growable adjacency arrays in both directions, plus the
+    // upward edges each vertex had at the moment it was contracted.
+
+    private static final class Contractor {
+        private final int n;
+        private final int[][] outTarget;
+        private final int[][] outWeight;
+        private final int[][] outMid;
+        private final int[] outCount;
+        private final int[][] inTarget;
+        private final int[][] inWeight;
+        private final int[][] inMid;
+        private final int[] inCount;
+
+        final int[] rank;
+        final int[] deleted;
+        final int[] depth;
+        final int[][] upTarget;
+        final int[][] upWeight;
+        final int[][] upMid;
+        final int[] upCount;
+        final int[][] downTarget;
+        final int[][] downWeight;
+        final int[][] downMid;
+        final int[] downCount;
+        int shortcuts;
+
+        // Witness search workspace
+        private final int[] wDist;
+        private final int[] wTouched;
+        // wMark[w] == wStamp for the out-neighbors of the vertex being contracted
+        private final int[] wMark;
+        private int wStamp;
+        private int wTouchedCount;
+        private final IndexedHeap wHeap;
+
+        Contractor(IndexedGraph g) {
+            n = g.getSize();
+            outTarget = new int[n][];
+            outWeight = new int[n][];
+            outMid = new int[n][];
+            outCount = new int[n];
+            inTarget = new int[n][];
+            inWeight = new int[n][];
+            inMid = new int[n][];
+            inCount = new int[n];
+            for (int v = 0; v < n; v++) {
+                int cap = Math.max(2, g.degree(v));
+                outTarget[v] = new int[cap];
+                outWeight[v] = new int[cap];
+                outMid[v] = new int[cap];
+            }
+            IndexedGraph rev = g.reverse();
+            for (int v = 0; v < n; v++) {
+                int cap = Math.max(2, rev.degree(v));
+                inTarget[v] = new int[cap];
+                inWeight[v] = new int[cap];
+                inMid[v] = new int[cap];
+            }
+            for (int u = 0; u < n; u++) {
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int v = g.target(i);
+                    if (v != u) {
+                        addEdge(u, v, g.weight(i), -1);
+                    }
+                }
+            }
+
+            rank = new int[n];
+            deleted = new int[n];
+            depth = new int[n];
+            upTarget = new int[n][];
+            upWeight = new int[n][];
+            upMid = new int[n][];
+            upCount = new int[n];
+            downTarget = new int[n][];
+            downWeight = new int[n][];
+            downMid = new int[n][];
+            downCount = new int[n];
+            wDist = new int[n];
+            Arrays.fill(wDist, Integer.MAX_VALUE);
+            wTouched = new int[n];
+            wMark = new int[n];
+            wHeap = new IndexedHeap(n, 4);
+        }
+
+        // Contracts vertices in order of priority, re-checking each one's priority when it comes up
+        // since contracting its neighbors may have made it less attractive.
+
+        void contractAll() {
+            IndexedHeap queue = new IndexedHeap(n, 4);
+            for (int v = 0; v < n; v++) {
+                queue.pushOrDecrease(v, priority(v));
+            }
+            int next = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                int p = priority(v);
+                if (!queue.isEmpty() && p > queue.peekKey()) {
+                    queue.pushOrDecrease(v, p);
+                    continue;
+                }
+                rank[v] = next++;
+                contract(v);
+            }
+        }
+
+        // Weighted edge difference plus the number of already contracted neighbors and the depth of the
+        // hierarchy below v, both of which spread contraction evenly over the graph instead of eating
+        // one region first. Weighting the edge difference 4:1 rather than 2:1 keeps the dense core that
+        // forms at the end smaller, which is where most of the preprocessing time goes. Recomputing
+        // neighbors eagerly after each contraction cost four times the preprocessing time for no fewer
+        // shortcuts, so priorities are only refreshed lazily.
+
+        private int priority(int v) {
+            return 4 * (shortcutsFor(v, false) - inCount[v] - outCount[v]) + deleted[v] + depth[v];
+        }
+
+        private void contract(int v) {
+            shortcutsFor(v, true);
+
+            upTarget[v] = Arrays.copyOf(outTarget[v], outCount[v]);
+            upWeight[v] = Arrays.copyOf(outWeight[v], outCount[v]);
+            upMid[v] = Arrays.copyOf(outMid[v], outCount[v]);
+            upCount[v] = outCount[v];
+            downTarget[v] = Arrays.copyOf(inTarget[v], inCount[v]);
+            downWeight[v] = Arrays.copyOf(inWeight[v], inCount[v]);
+            downMid[v] = Arrays.copyOf(inMid[v], inCount[v]);
+            downCount[v] = inCount[v];
+
+            for (int k = 0; k < outCount[v]; k++) {
+                int w = outTarget[v][k];
+                removeIn(w, v);
+                deleted[w]++;
+                depth[w] = Math.max(depth[w], depth[v] + 1);
+            }
+            for (int k = 0; k < inCount[v]; k++) {
+                int u = inTarget[v][k];
+                removeOut(u, v);
+                deleted[u]++;
+                depth[u] = Math.max(depth[u], depth[v] + 1);
+            }
+            outTarget[v] = outWeight[v] = outMid[v] = null;
+            inTarget[v] = inWeight[v] = inMid[v] = null;
+            outCount[v] = 0;
+            inCount[v] = 0;
+        }
+
+        // Counts, and with apply adds, the shortcuts u -> w needed for every in-neighbor u and
+        // out-neighbor w of v that have no witness path of the same or smaller cost avoiding v.
+
+        private int shortcutsFor(int v, boolean apply) {
+            int limit = apply ? CONTRACT_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT;
+            int count = 0;
+            wStamp++;
+            for (int b = 0; b < outCount[v]; b++) {
+                wMark[outTarget[v][b]] = wStamp;
+            }
+            for (int a = 0; a < inCount[v]; a++) {
+                int u = inTarget[v][a];
+                int wu = inWeight[v][a];
+                long max = -1;
+                for (int b = 0; b < outCount[v]; b++) {
+                    if (outTarget[v][b] != u) {
+                        max = Math.max(max, (long) wu + outWeight[v][b]);
+                    }
+                }
+                if (max < 0) {
+                    continue;
+                }
+                if (max > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Path weights overflow int");
+                }
+                witness(u, v, (int) max, limit, wMark[u] == wStamp ? outCount[v] - 1 : outCount[v]);
+                for (int b = 0; b < outCount[v]; b++) {
+                    int w = outTarget[v][b];
+                    int via = wu + outWeight[v][b];
+                    if (w != u && wDist[w] > via) {
+                        count++;
+                        if (apply) {
+                            if (addEdge(u, w, via, v)) {
+                                shortcuts++;
+                            }
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Bounded Dijkstra from u in the remaining graph without v, leaving distances in wDist. Also stops
+        // once every out-neighbor of v other than u is settled, since nothing settled later can shorten
+        // their distances.
+
+        private void witness(int u, int skip, int maxDist, int settleLimit, int targets) {
+            for (int i = 0; i < wTouchedCount; i++) {
+                wDist[wTouched[i]] = Integer.MAX_VALUE;
+            }
+            wTouchedCount = 0;
+            wHeap.clear();
+
+            wDist[u] = 0;
+            wTouched[wTouchedCount++] = u;
+            wHeap.pushOrDecrease(u, 0);
+            int settledCount = 0;
+            while (!wHeap.isEmpty() && wHeap.peekKey() <= maxDist && settledCount < settleLimit) {
+                int x = wHeap.poll();
+                settledCount++;
+                if (wMark[x] == wStamp && x != u && --targets == 0) {
+                    break;
+                }
+                int dx = wDist[x];
+                int[] t = outTarget[x];
+                int[] w = outWeight[x];
+                for (int k = 0, end = outCount[x]; k < end; k++) {
+                    int y = t[k];
+                    if (y == skip) {
+                        continue;
+                    }
+                    long alt = (long) dx + w[k];
+                    if (alt < wDist[y] && alt <= maxDist) {
+                        if (wDist[y] == Integer.MAX_VALUE) {
+                            wTouched[wTouchedCount++] = y;
+                        }
+                        wDist[y] = (int) alt;
+                        wHeap.pushOrDecrease(y, (int) alt);
+                    }
+                }
+            }
+        }
+
+        // Adds u -> w or lowers its weight if it already exists. Returns true if the edge is new.
+
+        private boolean addEdge(int u, int w, int weight, int mid) {
+            int[] t = outTarget[u];
+            for (int k = 0, end = outCount[u]; k < end; k++) {
+                if (t[k] == w) {
+                    if (weight < outWeight[u][k]) {
+                        outWeight[u][k] = weight;
+                        outMid[u][k] = mid;
+                        int j = indexOf(inTarget[w], inCount[w], u);
+                        inWeight[w][j] = weight;
+                        inMid[w][j] = mid;
+                    }
+                    return false;
+                }
+            }
+            if (outCount[u] == t.length) {
+                int cap = t.length * 2;
+                outTarget[u] = Arrays.copyOf(outTarget[u], cap);
+                outWeight[u] = Arrays.copyOf(outWeight[u], cap);
+                outMid[u] = Arrays.copyOf(outMid[u], cap);
+            }
+            outTarget[u][outCount[u]] = w;
+            outWeight[u][outCount[u]] = weight;
+            outMid[u][outCount[u]++] = mid;
+            if (inCount[w] == inTarget[w].length) {
+                int cap = inTarget[w].length * 2;
+                inTarget[w] = Arrays.copyOf(inTarget[w], cap);
+                inWeight[w] = Arrays.copyOf(inWeight[w], cap);
+                inMid[w] = Arrays.copyOf(inMid[w], cap);
+            }
+            inTarget[w][inCount[w]] = u;
+            inWeight[w][inCount[w]] = weight;
+            inMid[w][inCount[w]++] = mid;
+            return true;
+        }
+
+        private void removeOut(int u, int v) {
+            int k = indexOf(outTarget[u], outCount[u], v);
+            int last = --outCount[u];
+            outTarget[u][k] = outTarget[u][last];
+            outWeight[u][k] = outWeight[u][last];
+            outMid[u][k] = outMid[u][last];
+        }
+
+        private void removeIn(int w, int v) {
+            int k = indexOf(inTarget[w], inCount[w], v);
+            int last = --inCount[w];
+            inTarget[w][k] = inTarget[w][last];
+            inWeight[w][k] = inWeight[w][last];
+            inMid[w][k] = inMid[w][last];
+        }
+
+        private static int indexOf(int[] a, int len, int x) {
+            for (int k = 0; k < len; k++) {
+                if (a[k] == x) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.*;
+
+public final class CsrGraph implements IndexedGraph {
+
+    private final int size;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private CsrGraph reverse;
+    private int[] weightRange;
+
+    // Wraps prebuilt CSR arrays; neighbors of v are targets[offsets[v]..offsets[v + 1]) sorted ascending.
+
+    CsrGraph(int size, int[] offsets, int[] targets, int[] weights) {
+        this.size = size;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Builds an immutable CSR snapshot of g with every neighbor list sorted ascending.
+
+    public static CsrGraph freeze(Graph g) {
+        return g.freeze();
+    }
+
+    // Returns the number of vertices in the graph.
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    // Returns the number of directed edges in the graph.
+
+    @Override
+    public int edgeCount() {
+        return offsets[size];
+    }
+
+    // Index of the first edge leaving v.
+
+    @Override
+    public int start(int v) {
+        return offsets[v];
+    }
+
+    // Index one past the last edge leaving v.
+
+    @Override
+    public int end(int v) {
+        return offsets[v + 1];
+    }
+
+    // Returns the number of edges leaving v.
+
+    @Override
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    // Target vertex of edge i.
+
+    @Override
+    public int target(int i) {
+        return targets[i];
+    }
+
+    // Weight of edge i.
+
+    @Override
+    public int weight(int i) {
+        return weights[i];
+    }
+
+    // Returns the transposed graph, where the neighbors of v are the sources of edges into v.
+    // Built once on first use.
+
+    @Override
+    public CsrGraph reverse() {
+        if (reverse == null) {
+            CsrGraph r = transpose(this);
+            r.reverse = this;
+            reverse = r;
+        }
+        return reverse;
+    }
+
+    // Smallest edge weight, computed once on first use.
+
+    @Override
+    public int minWeight() {
+        if (weightRange == null) {
+            weightRange = weightRange(this);
+        }
+        return weightRange[0];
+    }
+
+    // Largest edge weight, computed once on first use.
+
+    @Override
+    public int maxWeight() {
+        if (weightRange == null) {
+            weightRange = weightRange(this);
+        }
+        return weightRange[1];
+    }
+
+    // Smallest and largest weight over every edge of g, {Integer.MAX_VALUE, 0} if it has none.
+
+    static int[] weightRange(IndexedGraph g) {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int i = 0, m = g.edgeCount(); i < m; i++) {
+            int w = g.weight(i);
+            min = Math.min(min, w);
+            max = Math.max(max, w);
+        }
+        return new int[] {min, max};
+    }
+
+    // Builds the transpose of any indexed graph on the heap. Sources come out sorted because they are
+    // filled in ascending order.
+
+    static CsrGraph transpose(IndexedGraph g) {
+        int size = g.getSize();
+        int m = g.edgeCount();
+        int[] revOffsets = new int[size + 1];
+        for (int i = 0; i < m; i++) {
+            revOffsets[g.target(i) + 1]++;
+        }
+        for (int v = 0; v < size; v++) {
+            revOffsets[v + 1] += revOffsets[v];
+        }
+        int[] fill = Arrays.copyOf(revOffsets, size);
+        int[] revTargets = new int[m];
+        int[] revWeights = new int[m];
+        for (int u = 0; u < size; u++) {
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int slot = fill[g.target(i)]++;
+                revTargets[slot] = u;
+                revWeights[slot] = g.weight(i);
+            }
+        }
+        return new CsrGraph(size, revOffsets, revTargets, revWeights);
+    }
+
+    // Checks whether there is an edge from u to v.
+
+    @Override
+    public boolean hasEdge(int u, int v) {
+        return indexOf(u, v) >= 0;
+    }
+
+    // Returns the weight of the edge from u to v.
+
+    @Override
+    public int getWeight(int u, int v) {
+        int i = indexOf(u, v);
+        if (i < 0) {
+            throw new NoSuchElementException("No edge from " + u + " to " + v);
+        }
+        return weights[i];
+    }
+
+    // Binary searches the sorted neighbor list of u for v, returns the edge index or -1.
+
+    @Override
+    public int indexOf(int u, int v) {
+        if (u < 0 || v < 0 || u >= size || v >= size) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        int i = Arrays.binarySearch(targets, offsets[u], offsets[u + 1], v);
+        return i >= 0 ? i : -1;
+    }
+}
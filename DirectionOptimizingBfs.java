@@ -0,0 +1,158 @@
+import java.util.*;
+
+public final class DirectionOptimizingBfs {
+
+    // Go bottom-up once the frontier's out-edges exceed 1/ALPHA of the edges still unexplored
+    public static final int ALPHA = 14;
+    // Go back top-down once the frontier shrinks below n/BETA vertices
+    public static final int BETA = 24;
+
+    private DirectionOptimizingBfs() {
+    }
+
+    // Levels and parents of vertices reachable from the source, -1 elsewhere, plus how many edges were read.
+
+    public static final class Result {
+        private final int[] level;
+        private final int[] parent;
+        private final int reached;
+        private final long edgesInspected;
+
+        Result(int[] level, int[] parent, int reached, long edgesInspected) {
+            this.level = level;
+            this.parent = parent;
+            this.reached = reached;
+            this.edgesInspected = edgesInspected;
+        }
+
+        public int[] levels() {
+            return level;
+        }
+
+        public int[] parents() {
+            return parent;
+        }
+
+        public int level(int v) {
+            return level[v];
+        }
+
+        public int parent(int v) {
+            return parent[v];
+        }
+
+        // Number of vertices reachable from the source, including the source.
+
+        public int reached() {
+            return reached;
+        }
+
+        // Edges read in either direction, a plain top-down bfs reads every out-edge of every reached vertex.
+
+        public long edgesInspected() {
+            return edgesInspected;
+        }
+    }
+
+    // Bfs from src with the default switching thresholds, using g.reverse() for bottom-up steps.
+
+    public static Result bfs(IndexedGraph g, int src) {
+        return bfs(g, src, ALPHA, BETA);
+    }
+
+    // Bfs from src that expands small frontiers top-down over out-edges and large ones bottom-up, where
+    // each unvisited vertex scans its in-edges and stops at the first parent found in the frontier.
+    // Levels match a plain bfs; parents may differ since bottom-up picks the smallest frontier in-neighbor.
+
+    public static Result bfs(IndexedGraph g, int src, int alpha, int beta) {
+        int n = g.getSize();
+        if (src < 0 || src >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        IndexedGraph rev = g.reverse();
+        int[] level = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(level, -1);
+        Arrays.fill(parent, -1);
+
+        int[] frontier = new int[n];
+        int[] next = new int[n];
+        long[] inFrontier = new long[(n + 63) >>> 6];
+        int size = 0;
+        long inspected = 0;
+        int reached = 1;
+
+        // Out-edges of vertices not yet visited, the work a top-down step could still have to do
+        long unexplored = g.edgeCount() - g.degree(src);
+        level[src] = 0;
+        frontier[size++] = src;
+        boolean bottomUp = false;
+        int prevSize = 0;
+
+        for (int depth = 1; size > 0; depth++) {
+            if (bottomUp) {
+                if (size < prevSize && size < n / beta) {
+                    bottomUp = false;
+                }
+            } else {
+                long scout = 0;
+                for (int k = 0; k < size; k++) {
+                    scout += g.degree(frontier[k]);
+                }
+                if (size > prevSize && scout > unexplored / alpha) {
+                    bottomUp = true;
+                }
+            }
+
+            int nextSize = 0;
+            if (bottomUp) {
+                for (int k = 0; k < size; k++) {
+                    int u = frontier[k];
+                    inFrontier[u >>> 6] |= 1L << u;
+                }
+                for (int v = 0; v < n; v++) {
+                    if (level[v] != -1) {
+                        continue;
+                    }
+                    for (int i = rev.start(v), end = rev.end(v); i < end; i++) {
+                        inspected++;
+                        int u = rev.target(i);
+                        if ((inFrontier[u >>> 6] & (1L << u)) != 0) {
+                            level[v] = depth;
+                            parent[v] = u;
+                            next[nextSize++] = v;
+                            break;
+                        }
+                    }
+                }
+                for (int k = 0; k < size; k++) {
+                    inFrontier[frontier[k] >>> 6] = 0L;
+                }
+            } else {
+                for (int k = 0; k < size; k++) {
+                    int u = frontier[k];
+                    for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                        inspected++;
+                        int v = g.target(i);
+                        if (level[v] == -1) {
+                            level[v] = depth;
+                            parent[v] = u;
+                            next[nextSize++] = v;
+                        }
+                    }
+                }
+            }
+
+            for (int k = 0; k < nextSize; k++) {
+                unexplored -= g.degree(next[k]);
+            }
+            reached += nextSize;
+            int[] t = frontier;
+            frontier = next;
+            next = t;
+            prevSize = size;
+            size = nextSize;
+        }
+        return new Result(level, parent, reached, inspected);
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.*;
+
+// Single-source shortest paths that stay current while the graph changes. Listens to its Graph and on
+// every edge insertion or weight change repairs only the part of the dist/prev tree the edit affects,
+// instead of rerunning Dijkstra over the whole graph:
+//
+//   insertion or decrease of u -> v  if it shortens the path to v, a Dijkstra seeded at v spreads the
+//                                    improvement and stops where distances no longer drop
+//   increase of a tree edge u -> v   v's subtree loses its distances; each vertex in it takes the best
+//                                    in-edge from outside the subtree, then a Dijkstra restricted to
+//                                    the subtree settles the rest
+//   increase of a non-tree edge      nothing on a shortest path used it, nothing to do
+//
+// Costs equal Algo.dijkstra's after every edit; paths can differ only when several shortest paths tie.
+// Keeps an in-edge index of its own since Graph only stores out-edges. Not thread-safe, like Graph.
+
+public final class DynamicShortestPaths implements Graph.Listener {
+
+    private final Graph graph;
+    private final int source;
+    private final int n;
+    private final int[] dist;
+    private final int[] prev;
+    private final Map<Integer, Integer>[] in;
+    private final IndexedHeap heap;
+
+    // Vertices whose dist was recomputed by the last repair
+    private int repaired;
+
+    // Marks the subtree cut off by a weight increase, reset after each repair
+    private final boolean[] affected;
+    private final int[] subtree;
+
+    // Builds the tree from source with a full Dijkstra and subscribes to g.
+
+    public DynamicShortestPaths(Graph g, int source) {
+        n = g.getSize();
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        graph = g;
+        this.source = source;
+        dist = new int[n];
+        prev = new int[n];
+        heap = new IndexedHeap(n, 4);
+        affected = new boolean[n];
+        subtree = new int[n];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<Integer, Integer>[] temp = new HashMap[n];
+        in = temp;
+        for (int v = 0; v < n; v++) {
+            in[v] = new HashMap<>();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int v : g.outNeighbors(u)) {
+                in[v].put(u, g.getWeight(u, v));
+            }
+        }
+        recompute();
+        g.addListener(this);
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public boolean hasPathTo(int v) {
+        return dist[v] != Integer.MAX_VALUE;
+    }
+
+    // Cost of the shortest path to v, or Integer.MAX_VALUE if v is unreachable.
+
+    public int distTo(int v) {
+        return dist[v];
+    }
+
+    // Previous vertex on the shortest path to v, -1 for the source and unreachable vertices.
+
+    public int parent(int v) {
+        return prev[v];
+    }
+
+    // Shortest path from the source to v, empty if v is unreachable.
+
+    public List<Integer> pathTo(int v) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        if (dist[v] == Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return ShortestPathTree.buildPath(prev, v);
+    }
+
+    // Number of vertices whose distance the last edit recomputed, n after a full recompute.
+
+    public int repaired() {
+        return repaired;
+    }
+
+    // Stops listening to the graph; the tree keeps answering for the graph as it was.
+
+    public void detach() {
+        graph.removeListener(this);
+    }
+
+    @Override
+    public void edgeAdded(int u, int v, int w) {
+        in[v].put(u, w);
+        repaired = 0;
+        lower(u, v, w);
+    }
+
+    @Override
+    public void weightChanged(int u, int v, int oldWeight, int newWeight) {
+        in[v].put(u, newWeight);
+        repaired = 0;
+        if (newWeight < oldWeight) {
+            lower(u, v, newWeight);
+        } else if (newWeight > oldWeight && prev[v] == u) {
+            raise(v);
+        }
+    }
+
+    @Override
+    public void cleared() {
+        for (Map<Integer, Integer> edges : in) {
+            edges.clear();
+        }
+        recompute();
+    }
+
+    // Edge u -> v now costs w. If that beats dist[v], spreads the improvement from v outward.
+
+    private void lower(int u, int v, int w) {
+        if (dist[u] == Integer.MAX_VALUE || (long) dist[u] + w >= dist[v]) {
+            return;
+        }
+        dist[v] = dist[u] + w;
+        prev[v] = u;
+        heap.pushOrDecrease(v, dist[v]);
+        propagate();
+    }
+
+    // The tree edge into v got more expensive, so every distance in v's subtree is suspect.
+
+    private void raise(int v) {
+        // Collect the subtree through out-edges, x is a child of y exactly when prev[x] == y
+        int size = 0;
+        subtree[size++] = v;
+        affected[v] = true;
+        for (int k = 0; k < size; k++) {
+            int y = subtree[k];
+            for (int x : graph.outNeighbors(y)) {
+                if (!affected[x] && prev[x] == y) {
+                    affected[x] = true;
+                    subtree[size++] = x;
+                }
+            }
+        }
+
+        // Best way into each subtree vertex from the part of the tree that is still valid
+        for (int k = 0; k < size; k++) {
+            int x = subtree[k];
+            long best = Integer.MAX_VALUE;
+            int parent = -1;
+            for (Map.Entry<Integer, Integer> e : in[x].entrySet()) {
+                int y = e.getKey();
+                if (!affected[y] && dist[y] != Integer.MAX_VALUE && (long) dist[y] + e.getValue() < best) {
+                    best = (long) dist[y] + e.getValue();
+                    parent = y;
+                }
+            }
+            dist[x] = (int) best;
+            prev[x] = parent;
+            if (parent != -1) {
+                heap.pushOrDecrease(x, dist[x]);
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            affected[subtree[k]] = false;
+        }
+        propagate();
+        repaired = Math.max(repaired, size);
+    }
+
+    // Dijkstra from whatever is queued. Only vertices whose distance drops get queued, so the search
+    // stays inside the region the edit changed.
+
+    private void propagate() {
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            repaired++;
+            int dx = dist[x];
+            for (int y : graph.outNeighbors(x)) {
+                long alt = (long) dx + graph.getWeight(x, y);
+                if (alt < dist[y]) {
+                    dist[y] = (int) alt;
+                    prev[y] = x;
+                    heap.pushOrDecrease(y, dist[y]);
+                }
+            }
+        }
+    }
+
+    private void recompute() {
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(prev, -1);
+        dist[source] = 0;
+        heap.clear();
+        heap.pushOrDecrease(source, 0);
+        repaired = 0;
+        propagate();
+    }
+}
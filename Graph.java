@@ -1,9 +1,30 @@
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class Graph {
+public class Graph implements GraphView {
 
     private final int size;
     private final Map<Integer, Integer>[] adjacency;
+    private long version;
+    // Last snapshot taken by freeze, reused while the version and the frozen prefix are unchanged
+    private CsrGraph frozen;
+    private long frozenVersion;
+    // Copy-on-write so a listener may add or remove listeners, itself included, from a callback
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Notified after each mutation, on the thread that made it. Defaults do nothing so a listener only
+    // overrides what it cares about.
+
+    public interface Listener {
+        default void edgeAdded(int u, int v, int w) {
+        }
+
+        default void weightChanged(int u, int v, int oldWeight, int newWeight) {
+        }
+
+        default void cleared() {
+        }
+    }
 
     // Constructs a Graph with n vertices and no edges.
 
@@ -26,6 +47,12 @@ public class Graph {
         return size;
     }
 
+    // Returns a counter bumped by every mutation, equal versions mean the edges have not changed.
+
+    public long getVersion() {
+        return version;
+    }
+
     // Checks whether there is an edge from u to v.
     public boolean hasEdge(int u, int v) {
         if (u < 0 || v < 0 || u >= size || v >= size) {
@@ -58,9 +85,92 @@ public class Graph {
             return false;
         }
         adjacency[u].put(v, w);
+        version++;
+        for (Listener l : listeners) {
+            l.edgeAdded(u, v, w);
+        }
         return true;
     }
 
+    // Adds the directed edges us[i] -> vs[i] with weight ws[i], same rules as addEdge. Edges that already
+    // exist, or repeat earlier in the batch, are skipped. Either every edge is valid and the batch is
+    // applied, or an IllegalArgumentException is thrown and the graph is unchanged. Returns how many
+    // edges were added. Listeners hear about each added edge as it goes in.
+
+    public int addEdges(int[] us, int[] vs, int[] ws) {
+        int m = us.length;
+        if (vs.length != m || ws.length != m) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+
+        // Branch-free validation so the loop can vectorize, the slow path only runs to pick the message
+        boolean bad = false;
+        for (int i = 0; i < m; i++) {
+            int u = us[i];
+            int v = vs[i];
+            bad |= (u < 0) | (v < 0) | (u >= size) | (v >= size) | (u == v) | (ws[i] < 0);
+        }
+        if (bad) {
+            for (int i = 0; i < m; i++) {
+                int u = us[i];
+                int v = vs[i];
+                if (u < 0 || v < 0 || u >= size || v >= size) {
+                    throw new IllegalArgumentException("Vertex index out of range");
+                }
+                if (u == v) {
+                    throw new IllegalArgumentException("No self-loops allowed");
+                }
+                if (ws[i] < 0) {
+                    throw new IllegalArgumentException("Weight must be non-negative");
+                }
+            }
+        }
+
+        // Bucket edge indices by source with a degree histogram, counting sort keeps batch order per source
+        int[] start = new int[size + 1];
+        for (int i = 0; i < m; i++) {
+            start[us[i] + 1]++;
+        }
+        for (int u = 0; u < size; u++) {
+            start[u + 1] += start[u];
+        }
+        int[] fill = Arrays.copyOf(start, size);
+        long[] keys = new long[m];
+        for (int i = 0; i < m; i++) {
+            // Sorting (target, batch index) puts repeats of a target together, earliest first
+            keys[fill[us[i]]++] = ((long) vs[i] << 32) | i;
+        }
+
+        int added = 0;
+        for (int u = 0; u < size; u++) {
+            int from = start[u];
+            int to = start[u + 1];
+            if (from == to) {
+                continue;
+            }
+            Arrays.sort(keys, from, to);
+            // Insert into the existing map so outNeighbors(u) views taken earlier see the new edges
+            Map<Integer, Integer> neighbors = adjacency[u];
+            int last = -1;
+            for (int k = from; k < to; k++) {
+                int v = (int) (keys[k] >>> 32);
+                if (v == last) {
+                    continue;
+                }
+                last = v;
+                int w = ws[(int) keys[k]];
+                if (neighbors.putIfAbsent(v, w) == null) {
+                    added++;
+                    version++;
+                    for (Listener l : listeners) {
+                        l.edgeAdded(u, v, w);
+                    }
+                }
+            }
+        }
+        return added;
+    }
+
     // Returns the set of neighbors reachable from v.
 
     public Set<Integer> outNeighbors(int v) {
@@ -82,7 +192,11 @@ public class Graph {
         if (!adjacency[u].containsKey(v)) {
             throw new NoSuchElementException("No edge from " + u + " to " + v);
         }
-        adjacency[u].put(v, w);
+        int old = adjacency[u].put(v, w);
+        version++;
+        for (Listener l : listeners) {
+            l.weightChanged(u, v, old, w);
+        }
     }
 
     // Removes all edges from the graph, preserving vertex count.
@@ -91,5 +205,120 @@ public class Graph {
         for (Map<Integer, Integer> neighbors : adjacency) {
             neighbors.clear();
         }
+        version++;
+        for (Listener l : listeners) {
+            l.cleared();
+        }
+    }
+
+    // Subscribes l to every later mutation of this graph.
+
+    public void addListener(Listener l) {
+        listeners.add(Objects.requireNonNull(l));
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    // Snapshots the graph into an immutable CSR graph with sorted neighbor lists. Until the next
+    // mutation, repeated calls return the same snapshot, along with its cached reverse and weight range.
+
+    public CsrGraph freeze() {
+        return freeze(size);
+    }
+
+    // Snapshots vertices 0..n-1, which must have no edges to vertices n and up.
+
+    private CsrGraph freeze(int n) {
+        if (frozen != null && frozenVersion == version && frozen.getSize() == n) {
+            return frozen;
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + adjacency[v].size();
+        }
+        int m = offsets[n];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+
+        // Pack (target, weight) into one long so a single sort orders targets and carries weights along
+        long[] packed = new long[m];
+        for (int v = 0; v < n; v++) {
+            int i = offsets[v];
+            for (Map.Entry<Integer, Integer> e : adjacency[v].entrySet()) {
+                if (e.getKey() >= n) {
+                    throw new IllegalStateException("Edge " + v + " -> " + e.getKey() + " leaves the view");
+                }
+                packed[i++] = ((long) e.getKey() << 32) | e.getValue();
+            }
+            Arrays.sort(packed, offsets[v], i);
+        }
+        for (int i = 0; i < m; i++) {
+            targets[i] = (int) (packed[i] >>> 32);
+            weights[i] = (int) packed[i];
+        }
+        frozen = new CsrGraph(n, offsets, targets, weights);
+        frozenVersion = version;
+        return frozen;
+    }
+
+    // Live read-only view of vertices 0..n-1, for graphs allocated larger than the part in use. Reads go
+    // straight to this graph, so the view always shows its current edges and weights. Edges must stay
+    // within the first n vertices while the view is used.
+
+    public GraphView view(int n) {
+        if (n < 0 || n > size) {
+            throw new IllegalArgumentException("View size out of range");
+        }
+        return n == size ? this : new View(n);
+    }
+
+    private final class View implements GraphView {
+        private final int n;
+
+        View(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public int getSize() {
+            return n;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean hasEdge(int u, int v) {
+            if (u >= n || v >= n) {
+                throw new IllegalArgumentException("Vertex index out of range");
+            }
+            return Graph.this.hasEdge(u, v);
+        }
+
+        @Override
+        public int getWeight(int u, int v) {
+            if (u >= n || v >= n) {
+                throw new IllegalArgumentException("Vertex index out of range");
+            }
+            return Graph.this.getWeight(u, v);
+        }
+
+        @Override
+        public Set<Integer> outNeighbors(int v) {
+            if (v >= n) {
+                throw new IllegalArgumentException("Vertex index out of range");
+            }
+            return Graph.this.outNeighbors(v);
+        }
+
+        @Override
+        public CsrGraph freeze() {
+            return Graph.this.freeze(n);
+        }
     }
 }
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Binary CSR graph files. All values are little-endian 32-bit ints:
+//   header   magic "CSRG", format version, vertex count n, edge count m
+//   offsets  n + 1 entries, the out-edges of v are edges offsets[v] until offsets[v + 1]
+//   targets  m entries, sorted ascending within each vertex
+//   weights  m entries
+// Each section is mapped separately, so a file can hold up to MAX_EDGES = 2^29 - 1 edges.
+
+public final class GraphFile {
+
+    static final int MAGIC = 0x47525343;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    // Largest section a single int buffer mapping can cover is Integer.MAX_VALUE bytes
+    static final int MAX_EDGES = Integer.MAX_VALUE / 4;
+
+    // Entries per write, keeps the staging buffer at 256 KB
+    private static final int CHUNK = 1 << 16;
+
+    private GraphFile() {
+    }
+
+    // Writes a CSR snapshot of g to file, replacing it if it exists.
+
+    public static void write(Graph g, Path file) throws IOException {
+        write(g.freeze(), file);
+    }
+
+    // Writes g to file, replacing it if it exists.
+
+    public static void write(IndexedGraph g, Path file) throws IOException {
+        int n = g.getSize();
+        int m = g.edgeCount();
+        // Checked before opening so an oversized graph leaves an existing file untouched
+        checkLimits(n, m, file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK * 4).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+            for (int v = 0; v <= n; v++) {
+                put(ch, buf, v < n ? g.start(v) : m);
+            }
+            for (int i = 0; i < m; i++) {
+                put(ch, buf, g.target(i));
+            }
+            for (int i = 0; i < m; i++) {
+                put(ch, buf, g.weight(i));
+            }
+            drain(ch, buf);
+        }
+    }
+
+    // Maps file read-only and returns a graph that reads straight from the page cache.
+    // The mapping stays valid after this returns and is released when the graph is collected.
+
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = ch.size();
+            if (length < HEADER_BYTES) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            IntBuffer header = map(ch, 0, HEADER_BYTES);
+            if (header.get(0) != MAGIC) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            if (header.get(1) != VERSION) {
+                throw new IOException("Unsupported graph file version " + header.get(1) + ": " + file);
+            }
+            int n = header.get(2);
+            int m = header.get(3);
+            long expected = HEADER_BYTES + 4L * (n + 1) + 8L * m;
+            if (n <= 0 || m < 0 || length != expected) {
+                throw new IOException("Corrupt graph file: " + file);
+            }
+            checkLimits(n, m, file);
+
+            long pos = HEADER_BYTES;
+            IntBuffer offsets = map(ch, pos, 4L * (n + 1));
+            pos += 4L * (n + 1);
+            IntBuffer targets = map(ch, pos, 4L * m);
+            pos += 4L * m;
+            IntBuffer weights = map(ch, pos, 4L * m);
+            if (offsets.get(0) != 0 || offsets.get(n) != m) {
+                throw new IOException("Corrupt graph file: " + file);
+            }
+            return new MappedGraph(n, offsets, targets, weights);
+        }
+    }
+
+    private static void checkLimits(int n, int m, Path file) throws IOException {
+        if (m > MAX_EDGES || n >= MAX_EDGES) {
+            throw new IOException("Graph too large for a graph file, at most " + MAX_EDGES + " edges: " + file);
+        }
+    }
+
+    private static IntBuffer map(FileChannel ch, long pos, long bytes) throws IOException {
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    // Appends x, flushing first when the buffer is full.
+
+    private static void put(FileChannel ch, ByteBuffer buf, int x) throws IOException {
+        if (!buf.hasRemaining()) {
+            drain(ch, buf);
+        }
+        buf.putInt(x);
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+}
@@ -0,0 +1,450 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Streams text graph files straight into CSR arrays. The file is read twice through one small byte
+// buffer: the first pass counts out-degrees, the second drops each edge into its slot. Numbers are
+// parsed from raw bytes, so no String or Integer is created per edge.
+//
+// Supported formats:
+//   EDGE_LIST      "u v [w]" per line, 0-based ids, weight 1 when missing, '#' or '%' comment lines
+//   DIMACS         9th DIMACS challenge .gr: "p sp n m" header and "a u v w" arcs, 1-based ids
+//   MATRIX_MARKET  coordinate .mtx, entry (i, j) is an edge i -> j, 1-based; symmetric files get both
+//                  directions, pattern files weight 1, real values are rounded to the nearest int
+// Self-loops are dropped and parallel edges keep the smallest weight.
+
+public final class GraphImporter {
+
+    public enum Format {
+        EDGE_LIST, DIMACS, MATRIX_MARKET;
+
+        // Guesses the format from the file extension, anything unknown is read as an edge list.
+
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gr")) {
+                return DIMACS;
+            }
+            if (name.endsWith(".mtx")) {
+                return MATRIX_MARKET;
+            }
+            return EDGE_LIST;
+        }
+    }
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Format format;
+    private long edgesRead;
+    private long bytesRead;
+    private long elapsedNanos;
+
+    public GraphImporter(Format format) {
+        this.format = format;
+    }
+
+    // Reads file in this importer's format and returns it as a CSR graph with sorted neighbor lists.
+
+    public CsrGraph read(Path file) throws IOException {
+        long t0 = System.nanoTime();
+
+        // Pass 1: out-degree of every source, growing the array as larger ids show up
+        int[][] degree = {new int[1024]};
+        int[] maxId = {-1};
+        int declared = scan(file, (u, v, w) -> {
+            // A self-loop is dropped but its id still counts towards the inferred vertex count
+            maxId[0] = Math.max(maxId[0], Math.max(u, v));
+            if (u == v) {
+                return;
+            }
+            if (u >= degree[0].length) {
+                degree[0] = Arrays.copyOf(degree[0], Math.max(u + 1, degree[0].length * 2));
+            }
+            degree[0][u]++;
+        });
+        int n = declared >= 0 ? declared : maxId[0] + 1;
+        if (n <= 0) {
+            throw new IOException("No vertices in " + file);
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] deg = degree[0];
+        for (int v = 0; v < n; v++) {
+            long next = (long) offsets[v] + (v < deg.length ? deg[v] : 0);
+            if (next > Integer.MAX_VALUE) {
+                throw new IOException("Too many edges in " + file);
+            }
+            offsets[v + 1] = (int) next;
+        }
+        int m = offsets[n];
+
+        // Pass 2: pack (target, weight) into its source's slot so one sort orders targets and carries weights
+        long[] packed = new long[m];
+        int[] fill = Arrays.copyOf(offsets, n);
+        edgesRead = 0;
+        scan(file, (u, v, w) -> {
+            if (u == v) {
+                return;
+            }
+            packed[fill[u]++] = ((long) v << 32) | w;
+            edgesRead++;
+        });
+
+        // Sort each list and squeeze out parallel edges, the first of each run has the smallest weight
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        int out = 0;
+        for (int u = 0; u < n; u++) {
+            int from = offsets[u];
+            int to = offsets[u + 1];
+            Arrays.sort(packed, from, to);
+            offsets[u] = out;
+            int last = -1;
+            for (int i = from; i < to; i++) {
+                int t = (int) (packed[i] >>> 32);
+                if (t != last) {
+                    targets[out] = t;
+                    weights[out] = (int) packed[i];
+                    out++;
+                    last = t;
+                }
+            }
+        }
+        offsets[n] = out;
+        if (out < m) {
+            targets = Arrays.copyOf(targets, out);
+            weights = Arrays.copyOf(weights, out);
+        }
+
+        bytesRead = Files.size(file);
+        elapsedNanos = System.nanoTime() - t0;
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    // Edge records parsed by the last read, counting both directions of symmetric entries.
+
+    public long getEdgesRead() {
+        return edgesRead;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // Wall time of the last read, both passes and the final sort included.
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getEdgesPerSecond() {
+        return elapsedNanos == 0 ? 0 : edgesRead * 1e9 / elapsedNanos;
+    }
+
+    private interface EdgeSink {
+        void edge(int u, int v, int w);
+    }
+
+    // Parses file and hands every edge to sink with 0-based ids, self-loops included. Returns the vertex count the header
+    // declares, or -1 for edge lists where it is inferred from the largest id.
+
+    private int scan(Path file, EdgeSink sink) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            Tokens t = new Tokens(in);
+            switch (format) {
+                case DIMACS:
+                    return scanDimacs(t, sink);
+                case MATRIX_MARKET:
+                    return scanMatrixMarket(t, sink);
+                default:
+                    scanEdgeList(t, sink);
+                    return -1;
+            }
+        }
+    }
+
+    private static void scanEdgeList(Tokens t, EdgeSink sink) throws IOException {
+        while (t.nextLine()) {
+            int c = t.peek();
+            if (c == '#' || c == '%') {
+                t.skipLine();
+                continue;
+            }
+            int u = t.readVertex(0, -1);
+            int v = t.readVertex(0, -1);
+            int w = t.atLineEnd() ? 1 : t.readWeight();
+            t.skipLine();
+            sink.edge(u, v, w);
+        }
+    }
+
+    private static int scanDimacs(Tokens t, EdgeSink sink) throws IOException {
+        int n = -1;
+        while (t.nextLine()) {
+            int c = t.read();
+            if (c == 'p') {
+                t.skipToken();
+                n = t.readCount();
+                t.skipLine();
+            } else if (c == 'a') {
+                if (n < 0) {
+                    throw t.error("Arc before problem line");
+                }
+                int u = t.readVertex(1, n);
+                int v = t.readVertex(1, n);
+                int w = t.readWeight();
+                t.skipLine();
+                sink.edge(u, v, w);
+            } else {
+                t.skipLine();
+            }
+        }
+        if (n < 0) {
+            throw t.error("Missing problem line");
+        }
+        return n;
+    }
+
+    private static int scanMatrixMarket(Tokens t, EdgeSink sink) throws IOException {
+        if (!t.nextLine() || t.peek() != '%') {
+            throw t.error("Missing %%MatrixMarket banner");
+        }
+        String banner = t.readLine().toLowerCase(Locale.ROOT);
+        if (!banner.startsWith("%%matrixmarket matrix coordinate")) {
+            throw t.error("Only coordinate Matrix Market files are supported");
+        }
+        if (banner.contains("complex")) {
+            throw t.error("Complex Matrix Market values are not supported");
+        }
+        boolean symmetric = banner.contains("symmetric") || banner.contains("hermitian");
+        boolean pattern = banner.contains("pattern");
+
+        int n = -1;
+        while (t.nextLine()) {
+            if (t.peek() == '%') {
+                t.skipLine();
+                continue;
+            }
+            if (n < 0) {
+                n = Math.max(t.readCount(), t.readCount());
+                t.skipLine();
+                continue;
+            }
+            int u = t.readVertex(1, n);
+            int v = t.readVertex(1, n);
+            int w = pattern ? 1 : t.readRoundedWeight();
+            t.skipLine();
+            sink.edge(u, v, w);
+            if (symmetric && u != v) {
+                sink.edge(v, u, w);
+            }
+        }
+        if (n < 0) {
+            throw t.error("Missing size line");
+        }
+        return n;
+    }
+
+    // Byte-level tokenizer over a fixed buffer, tracks the line number for error messages.
+
+    private static final class Tokens {
+        private final InputStream in;
+        private final byte[] buf = new byte[BUFFER_BYTES];
+        private int pos;
+        private int len;
+        private long line = 1;
+
+        Tokens(InputStream in) {
+            this.in = in;
+        }
+
+        // Next byte without consuming it, -1 at end of input.
+
+        int peek() throws IOException {
+            if (pos == len && !fill()) {
+                return -1;
+            }
+            // Masked so bytes from 0x80 up, such as UTF-8 in comments, are not mistaken for the -1 of EOF
+            return buf[pos] & 0xFF;
+        }
+
+        // Refills the buffer, kept out of peek so the hot path stays small enough to inline.
+
+        private boolean fill() throws IOException {
+            len = Math.max(0, in.read(buf, 0, buf.length));
+            pos = 0;
+            return len > 0;
+        }
+
+        int read() throws IOException {
+            int c = peek();
+            if (c != -1) {
+                pos++;
+                if (c == '\n') {
+                    line++;
+                }
+            }
+            return c;
+        }
+
+        // Skips blank lines and leading spaces, returns false at end of input.
+
+        boolean nextLine() throws IOException {
+            while (true) {
+                skipSpaces();
+                int c = peek();
+                if (c == -1) {
+                    return false;
+                }
+                if (c != '\n') {
+                    return true;
+                }
+                pos++;
+                line++;
+            }
+        }
+
+        boolean atLineEnd() throws IOException {
+            skipSpaces();
+            int c = peek();
+            return c == '\n' || c == -1;
+        }
+
+        void skipLine() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c != '\n' && c != -1);
+        }
+
+        void skipToken() throws IOException {
+            skipSpaces();
+            int c = peek();
+            while (c != -1 && !isSpace(c) && c != '\n') {
+                pos++;
+                c = peek();
+            }
+        }
+
+        // Rest of the current line as a String, only used for headers.
+
+        String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c = read();
+            while (c != '\n' && c != -1) {
+                sb.append((char) c);
+                c = read();
+            }
+            return sb.toString().trim();
+        }
+
+        // Reads a vertex id, subtracts base and checks it against n when n is known.
+
+        int readVertex(int base, int n) throws IOException {
+            long id = readLong() - base;
+            if (id < 0 || id > Integer.MAX_VALUE - 1 || (n >= 0 && id >= n)) {
+                throw error("Vertex id out of range");
+            }
+            return (int) id;
+        }
+
+        int readCount() throws IOException {
+            long x = readLong();
+            if (x <= 0 || x >= Integer.MAX_VALUE) {
+                throw error("Invalid vertex count");
+            }
+            return (int) x;
+        }
+
+        int readWeight() throws IOException {
+            long w = readLong();
+            if (w < 0 || w > Integer.MAX_VALUE) {
+                throw error("Weight must be a non-negative int");
+            }
+            return (int) w;
+        }
+
+        // Reads a decimal such as 3, -0.5 or 1.2e3 and rounds it to the nearest int weight.
+
+        int readRoundedWeight() throws IOException {
+            skipSpaces();
+            boolean negative = false;
+            int c = peek();
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                pos++;
+            }
+            double x = 0;
+            boolean digits = false;
+            for (c = peek(); c >= '0' && c <= '9'; c = peek()) {
+                x = x * 10 + (c - '0');
+                digits = true;
+                pos++;
+            }
+            if (c == '.') {
+                pos++;
+                double scale = 0.1;
+                for (c = peek(); c >= '0' && c <= '9'; c = peek()) {
+                    x += (c - '0') * scale;
+                    scale /= 10;
+                    digits = true;
+                    pos++;
+                }
+            }
+            if (!digits) {
+                throw error("Expected a number");
+            }
+            if (c == 'e' || c == 'E') {
+                pos++;
+                x *= Math.pow(10, readLong());
+            }
+            long w = Math.round(negative ? -x : x);
+            if (w < 0 || w > Integer.MAX_VALUE) {
+                throw error("Weight must be a non-negative int");
+            }
+            return (int) w;
+        }
+
+        long readLong() throws IOException {
+            skipSpaces();
+            boolean negative = false;
+            int c = peek();
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                pos++;
+                c = peek();
+            }
+            if (c < '0' || c > '9') {
+                throw error("Expected a number");
+            }
+            long x = 0;
+            while (c >= '0' && c <= '9') {
+                x = x * 10 + (c - '0');
+                if (x > Integer.MAX_VALUE * 4L) {
+                    throw error("Number too large");
+                }
+                pos++;
+                c = peek();
+            }
+            return negative ? -x : x;
+        }
+
+        private void skipSpaces() throws IOException {
+            int c = peek();
+            while (isSpace(c)) {
+                pos++;
+                c = peek();
+            }
+        }
+
+        private static boolean isSpace(int c) {
+            return c == ' ' || c == '\t' || c == '\r' || c == ',';
+        }
+
+        IOException error(String message) {
+            return new IOException(message + " on line " + line);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+import java.util.*;
+
+// Read-only access to a weighted directed graph. Algo's Graph-based methods take this, so callers can
+// hand them a live Graph, or a view of part of one, without copying any edges.
+
+public interface GraphView {
+
+    int getSize();
+
+    // Counter bumped by every mutation of the underlying graph, equal versions mean the same edges.
+
+    long getVersion();
+
+    boolean hasEdge(int u, int v);
+
+    int getWeight(int u, int v);
+
+    Set<Integer> outNeighbors(int v);
+
+    // Snapshots the edges into an immutable CSR graph with sorted neighbor lists.
+
+    CsrGraph freeze();
+}
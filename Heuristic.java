@@ -0,0 +1,42 @@
+// Lower bound on the remaining distance from v to dst for A* search. Estimates must never exceed the
+// true distance; if they also satisfy estimate(u) <= w(u, v) + estimate(v) along every edge, A* settles
+// each vertex at most once.
+
+@FunctionalInterface
+public interface Heuristic {
+
+    int estimate(int v, int dst);
+
+    // No guidance, A* with this heuristic is plain Dijkstra.
+
+    static Heuristic zero() {
+        return (v, dst) -> 0;
+    }
+
+    // Straight-line distance between vertex coordinates, scaled by the smallest weight per unit length over
+    // all edges of g. The scaling keeps the bound admissible and consistent however weights relate to
+    // geometry; a zero-weight edge between distinct points degrades it to zero().
+
+    static Heuristic euclidean(IndexedGraph g, int[] x, int[] y) {
+        int n = g.getSize();
+        if (x.length < n || y.length < n) {
+            throw new IllegalArgumentException("Missing coordinates");
+        }
+        double scale = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < n; u++) {
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                double len = Math.hypot(x[u] - x[v], y[u] - y[v]);
+                if (len > 0) {
+                    scale = Math.min(scale, g.weight(i) / len);
+                }
+            }
+        }
+        if (scale == Double.POSITIVE_INFINITY || scale == 0) {
+            return zero();
+        }
+        double s = scale;
+        // Flooring keeps consistency since edge weights are whole numbers
+        return (v, dst) -> (int) Math.min(Integer.MAX_VALUE, Math.floor(s * Math.hypot(x[v] - x[dst], y[v] - y[dst])));
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.*;
+
+// Read-only CSR adjacency: the out-edges of v are the edge indices start(v) until end(v), with targets
+// sorted ascending. Implemented on the heap by CsrGraph and off-heap by MappedGraph.
+
+public interface IndexedGraph {
+
+    // Returns the number of vertices in the graph.
+
+    int getSize();
+
+    // Returns the number of directed edges in the graph.
+
+    int edgeCount();
+
+    // Index of the first edge leaving v.
+
+    int start(int v);
+
+    // Index one past the last edge leaving v.
+
+    int end(int v);
+
+    // Target vertex of edge i.
+
+    int target(int i);
+
+    // Weight of edge i.
+
+    int weight(int i);
+
+    // Returns the transposed graph, where the neighbors of v are the sources of edges into v.
+
+    IndexedGraph reverse();
+
+    // Smallest edge weight, Integer.MAX_VALUE if there are no edges. Scans every edge; CsrGraph and
+    // MappedGraph do that once and keep the result.
+
+    default int minWeight() {
+        return CsrGraph.weightRange(this)[0];
+    }
+
+    // Largest edge weight, 0 if there are no edges. Same cost as minWeight.
+
+    default int maxWeight() {
+        return CsrGraph.weightRange(this)[1];
+    }
+
+    // Returns the number of edges leaving v.
+
+    default int degree(int v) {
+        return end(v) - start(v);
+    }
+
+    // Checks whether there is an edge from u to v.
+
+    default boolean hasEdge(int u, int v) {
+        return indexOf(u, v) >= 0;
+    }
+
+    // Returns the weight of the edge from u to v.
+
+    default int getWeight(int u, int v) {
+        int i = indexOf(u, v);
+        if (i < 0) {
+            throw new NoSuchElementException("No edge from " + u + " to " + v);
+        }
+        return weight(i);
+    }
+
+    // Binary searches the sorted neighbor list of u for v, returns the edge index or -1.
+
+    default int indexOf(int u, int v) {
+        int size = getSize();
+        if (u < 0 || v < 0 || u >= size || v >= size) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        int lo = start(u);
+        int hi = end(u) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int t = target(mid);
+            if (t < v) {
+                lo = mid + 1;
+            } else if (t > v) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.*;
+
+public final class IndexedHeap {
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] pos;
+    private final int[] keys;
+    private int size;
+
+    // Creates an empty min heap over vertices 0..n-1 where each node has arity children.
+
+    public IndexedHeap(int n, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        }
+        this.arity = arity;
+        heap = new int[n];
+        pos = new int[n];
+        keys = new int[n];
+        Arrays.fill(pos, -1);
+    }
+
+    // Returns the number of vertices the heap can hold.
+
+    public int capacity() {
+        return heap.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Checks whether v is currently in the heap.
+
+    public boolean contains(int v) {
+        return pos[v] >= 0;
+    }
+
+    // Returns the current key of v, only meaningful while v is in the heap.
+
+    public int key(int v) {
+        return keys[v];
+    }
+
+    // Returns the vertex with the smallest key without removing it.
+
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    // Returns the smallest key in the heap.
+
+    public int peekKey() {
+        return keys[peek()];
+    }
+
+    // Empties the heap in O(size) so it can be reused for another run.
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // Inserts v with the given key, or lowers its key if v is already present with a larger one.
+    // Returns false if v was present with a key no larger than the new one.
+
+    public boolean pushOrDecrease(int v, int key) {
+        int i = pos[v];
+        if (i < 0) {
+            i = size++;
+        } else if (key >= keys[v]) {
+            return false;
+        }
+        keys[v] = key;
+        siftUp(v, i);
+        return true;
+    }
+
+    // Removes and returns the vertex with the smallest key.
+
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = heap[0];
+        pos[min] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(last, 0);
+        }
+        return min;
+    }
+
+    // Moves v up from slot i until its parent has a key no larger than its own.
+
+    private void siftUp(int v, int i) {
+        int key = keys[v];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            int p = heap[parent];
+            if (keys[p] <= key) {
+                break;
+            }
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    // Moves v down from slot i until none of its children has a smaller key.
+
+    private void siftDown(int v, int i) {
+        int key = keys[v];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int best = first;
+            int bestKey = keys[heap[first]];
+            for (int c = first + 1, end = Math.min(first + arity, size); c < end; c++) {
+                int k = keys[heap[c]];
+                if (k < bestKey) {
+                    best = c;
+                    bestKey = k;
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            int child = heap[best];
+            heap[i] = child;
+            pos[child] = i;
+            i = best;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+}
@@ -0,0 +1,78 @@
+import java.nio.IntBuffer;
+
+public final class MappedGraph implements IndexedGraph {
+
+    private final int size;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private CsrGraph reverse;
+    private int[] weightRange;
+
+    // Wraps the three mapped sections of a graph file, see GraphFile for the layout.
+
+    MappedGraph(int size, IntBuffer offsets, IntBuffer targets, IntBuffer weights) {
+        this.size = size;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int edgeCount() {
+        return offsets.get(size);
+    }
+
+    @Override
+    public int start(int v) {
+        return offsets.get(v);
+    }
+
+    @Override
+    public int end(int v) {
+        return offsets.get(v + 1);
+    }
+
+    @Override
+    public int target(int i) {
+        return targets.get(i);
+    }
+
+    @Override
+    public int weight(int i) {
+        return weights.get(i);
+    }
+
+    // The weight range takes one pass over the weight section on first use.
+
+    @Override
+    public int minWeight() {
+        if (weightRange == null) {
+            weightRange = CsrGraph.weightRange(this);
+        }
+        return weightRange[0];
+    }
+
+    @Override
+    public int maxWeight() {
+        if (weightRange == null) {
+            weightRange = CsrGraph.weightRange(this);
+        }
+        return weightRange[1];
+    }
+
+    // The transpose is built on the heap on first use, the file only stores out-edges.
+
+    @Override
+    public CsrGraph reverse() {
+        if (reverse == null) {
+            reverse = CsrGraph.transpose(this);
+        }
+        return reverse;
+    }
+}
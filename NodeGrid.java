@@ -0,0 +1,116 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+
+// Uniform grid over node positions, so hit-testing a click and finding the nodes inside a rectangle
+// only look at the cells around them instead of every node. Node ids are assigned in insertion order.
+// Only cells that hold a node are stored, so memory grows with the nodes, not with the canvas area.
+
+public final class NodeGrid {
+
+    private final int cellSize;
+    private final Map<Long, int[]> cells = new HashMap<>();
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int count;
+
+    // cellSize should be about the diameter of a node so a hit test reads a 3x3 block of cells.
+
+    public NodeGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Adds a node at (x, y) and returns its id.
+
+    public int add(int x, int y) {
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, count * 2);
+            ys = Arrays.copyOf(ys, count * 2);
+        }
+        int id = count++;
+        xs[id] = x;
+        ys[id] = y;
+        // Element 0 of a cell array is the number of ids stored after it
+        int[] cell = cells.computeIfAbsent(key(cell(x), cell(y)), k -> new int[4]);
+        if (cell[0] + 1 == cell.length) {
+            cell = Arrays.copyOf(cell, cell.length * 2);
+            cells.put(key(cell(x), cell(y)), cell);
+        }
+        cell[++cell[0]] = id;
+        return id;
+    }
+
+    public void clear() {
+        cells.clear();
+        count = 0;
+    }
+
+    // The lowest id within distance radius of (x, y), or -1.
+
+    public int hit(int x, int y, int radius) {
+        int best = -1;
+        long r2 = (long) radius * radius;
+        for (int cx = cell(x - radius); cx <= cell(x + radius); cx++) {
+            for (int cy = cell(y - radius); cy <= cell(y + radius); cy++) {
+                int[] c = cells.get(key(cx, cy));
+                if (c == null) {
+                    continue;
+                }
+                for (int k = 1; k <= c[0]; k++) {
+                    int id = c[k];
+                    long dx = xs[id] - x;
+                    long dy = ys[id] - y;
+                    if (dx * dx + dy * dy <= r2 && (best == -1 || id < best)) {
+                        best = id;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Calls action with every node inside the rectangle, bounds included, in no particular order.
+
+    public void query(int minX, int minY, int maxX, int maxY, IntConsumer action) {
+        long width = (long) cell(maxX) - cell(minX) + 1;
+        long height = (long) cell(maxY) - cell(minY) + 1;
+        if (width * height > cells.size()) {
+            // Zoomed far out, fewer occupied cells than cells under the rectangle
+            for (int[] c : cells.values()) {
+                visit(c, minX, minY, maxX, maxY, action);
+            }
+            return;
+        }
+        for (int cx = cell(minX); cx <= cell(maxX); cx++) {
+            for (int cy = cell(minY); cy <= cell(maxY); cy++) {
+                int[] c = cells.get(key(cx, cy));
+                if (c != null) {
+                    visit(c, minX, minY, maxX, maxY, action);
+                }
+            }
+        }
+    }
+
+    private void visit(int[] c, int minX, int minY, int maxX, int maxY, IntConsumer action) {
+        for (int k = 1; k <= c[0]; k++) {
+            int id = c[k];
+            if (xs[id] >= minX && xs[id] <= maxX && ys[id] >= minY && ys[id] <= maxY) {
+                action.accept(id);
+            }
+        }
+    }
+
+    private int cell(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
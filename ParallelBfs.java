@@ -0,0 +1,270 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class ParallelBfs {
+
+    // Frontiers smaller than this many vertices per chunk are expanded on the calling thread
+    private static final int GRAIN = 1024;
+
+    private ParallelBfs() {
+    }
+
+    // Levels, parents and visit order of a full-graph bfs. Roots of each restart have level 0 and parent -1.
+
+    public static final class Result {
+        private final int[] order;
+        private final int[] level;
+        private final int[] parent;
+
+        Result(int[] order, int[] level, int[] parent) {
+            this.order = order;
+            this.level = level;
+            this.parent = parent;
+        }
+
+        // Vertices in the order their level was expanded.
+
+        public int[] order() {
+            return order;
+        }
+
+        public int[] levels() {
+            return level;
+        }
+
+        public int[] parents() {
+            return parent;
+        }
+
+        public int level(int v) {
+            return level[v];
+        }
+
+        public int parent(int v) {
+            return parent[v];
+        }
+
+        public List<Integer> toList() {
+            List<Integer> list = new ArrayList<>(order.length);
+            for (int v : order) {
+                list.add(v);
+            }
+            return list;
+        }
+    }
+
+    // Parallel bfs from start on the common pool.
+
+    public static Result bfs(IndexedGraph g, int start, boolean deterministic) {
+        return bfs(g, start, ForkJoinPool.commonPool(), deterministic);
+    }
+
+    // Level-synchronous bfs from start that continues from the smallest unvisited vertex like Algo.bfs.
+    // Each frontier is split into chunks expanded on pool. In deterministic mode every vertex is claimed by
+    // its earliest frontier parent, which reproduces the order and parents of Algo.bfs exactly. Otherwise
+    // the first thread to set the visited bit wins, which is cheaper but lets parents vary between runs.
+
+    public static Result bfs(IndexedGraph g, int start, ForkJoinPool pool, boolean deterministic) {
+        int n = g.getSize();
+        if (start < 0 || start >= n) {
+            throw new IllegalArgumentException("Vertex index out of range");
+        }
+        int[] level = new int[n];
+        int[] parent = new int[n];
+        int[] order = new int[n];
+        Arrays.fill(level, -1);
+        Arrays.fill(parent, -1);
+
+        AtomicLongArray visited = deterministic ? null : new AtomicLongArray((n + 63) >>> 6);
+        AtomicIntegerArray owner = deterministic ? new AtomicIntegerArray(n) : null;
+
+        int count = 0;
+        // Every vertex below next is already visited, so restarts never rescan from 0
+        int next = 0;
+        int root = start;
+        while (root != -1) {
+            level[root] = 0;
+            if (visited != null) {
+                claim(visited, root >>> 6, 1L << root);
+            }
+            int head = count;
+            order[count++] = root;
+
+            // order[head..count) is the current frontier, the next one is appended right after it
+            for (int depth = 1; head < count; depth++) {
+                int tail = count;
+                if (deterministic) {
+                    count = expandDeterministic(g, pool, order, head, tail, depth, level, parent, owner);
+                } else {
+                    count = expandRacing(g, pool, order, head, tail, depth, level, parent, visited);
+                }
+                head = tail;
+            }
+
+            root = -1;
+            if (count < n) {
+                while (level[next] != -1) {
+                    next++;
+                }
+                root = next;
+            }
+        }
+        return new Result(order, level, parent);
+    }
+
+    // One pass: whoever sets v's visited bit first becomes its parent.
+
+    private static int expandRacing(IndexedGraph g, ForkJoinPool pool, int[] order, int head, int tail, int depth,
+                                    int[] level, int[] parent, AtomicLongArray visited) {
+        int[][] found = new int[chunks(pool, tail - head)][];
+        int[] sizes = new int[found.length];
+        forEachChunk(pool, head, tail, found.length, (c, from, to) -> {
+            int[] buf = new int[16];
+            int len = 0;
+            for (int k = from; k < to; k++) {
+                int u = order[k];
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int v = g.target(i);
+                    if (!claim(visited, v >>> 6, 1L << v)) {
+                        continue;
+                    }
+                    level[v] = depth;
+                    parent[v] = u;
+                    if (len == buf.length) {
+                        buf = Arrays.copyOf(buf, len * 2);
+                    }
+                    buf[len++] = v;
+                }
+            }
+            found[c] = buf;
+            sizes[c] = len;
+        });
+        return concat(order, tail, found, sizes);
+    }
+
+    // Two passes: first every frontier slot bids for its unvisited neighbors with an atomic min, then each
+    // slot emits the neighbors it won in sorted order. Concatenating chunks keeps the sequential order.
+
+    private static int expandDeterministic(IndexedGraph g, ForkJoinPool pool, int[] order, int head, int tail, int depth,
+                                           int[] level, int[] parent, AtomicIntegerArray owner) {
+        int chunks = chunks(pool, tail - head);
+        forEachChunk(pool, head, tail, chunks, (c, from, to) -> {
+            for (int k = from; k < to; k++) {
+                int u = order[k];
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int v = g.target(i);
+                    if (level[v] == -1) {
+                        bidMin(owner, v, k);
+                    }
+                }
+            }
+        });
+
+        // Any vertex that received a bid is won at that same level, so unvisited vertices never carry a
+        // stale bid from an earlier frontier
+        int[][] found = new int[chunks][];
+        int[] sizes = new int[chunks];
+        forEachChunk(pool, head, tail, chunks, (c, from, to) -> {
+            int[] buf = new int[16];
+            int len = 0;
+            for (int k = from; k < to; k++) {
+                int u = order[k];
+                for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                    int v = g.target(i);
+                    if (owner.get(v) == k + 1 && level[v] == -1) {
+                        level[v] = depth;
+                        parent[v] = u;
+                        if (len == buf.length) {
+                            buf = Arrays.copyOf(buf, len * 2);
+                        }
+                        buf[len++] = v;
+                    }
+                }
+            }
+            found[c] = buf;
+            sizes[c] = len;
+        });
+        return concat(order, tail, found, sizes);
+    }
+
+    // Sets the bit unless it is already set, returns whether this call set it.
+
+    private static boolean claim(AtomicLongArray visited, int word, long bit) {
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    // Lowers owner[v] to slot if slot is smaller. Unbid vertices start at 0, so the bid is stored as slot + 1.
+
+    private static void bidMin(AtomicIntegerArray owner, int v, int slot) {
+        int bid = slot + 1;
+        while (true) {
+            int cur = owner.get(v);
+            if (cur != 0 && cur <= bid) {
+                return;
+            }
+            if (owner.compareAndSet(v, cur, bid)) {
+                return;
+            }
+        }
+    }
+
+    // Appends each chunk's discoveries to order starting at tail and returns the new end.
+
+    private static int concat(int[] order, int tail, int[][] found, int[] sizes) {
+        int count = tail;
+        for (int c = 0; c < found.length; c++) {
+            System.arraycopy(found[c], 0, order, count, sizes[c]);
+            count += sizes[c];
+        }
+        return count;
+    }
+
+    // Enough chunks to keep every worker busy, but none smaller than GRAIN vertices.
+
+    private static int chunks(ForkJoinPool pool, int frontier) {
+        return Math.max(1, Math.min(pool.getParallelism() * 4, frontier / GRAIN));
+    }
+
+    private interface ChunkBody {
+        void run(int chunk, int from, int to);
+    }
+
+    // Runs body over [from, to) split into equal chunks, inline when there is only one.
+
+    private static void forEachChunk(ForkJoinPool pool, int from, int to, int chunks, ChunkBody body) {
+        if (chunks == 1) {
+            body.run(0, from, to);
+            return;
+        }
+        int span = to - from;
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>(chunks);
+                for (int c = 0; c < chunks; c++) {
+                    int chunk = c;
+                    int lo = from + (int) ((long) span * c / chunks);
+                    int hi = from + (int) ((long) span * (c + 1) / chunks);
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            body.run(chunk, lo, hi);
+                        }
+                    });
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+import java.util.*;
+
+public final class SearchResult {
+
+    private final List<Integer> path;
+    private final int[] settled;
+
+    // Path found and vertices in the order the search settled them.
+
+    SearchResult(List<Integer> path, int[] settled) {
+        this.path = path;
+        this.settled = settled;
+    }
+
+    // Returns the path from source to destination, empty if unreachable.
+
+    public List<Integer> getPath() {
+        return path;
+    }
+
+    // Returns the vertices the search settled, in order, which is its explored region.
+
+    public int[] getSettled() {
+        return settled;
+    }
+
+    public int settledCount() {
+        return settled.length;
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.*;
+
+public final class ShortestPathTree {
+
+    private final int source;
+    private final int[] dist;
+    private final int[] prev;
+
+    // Wraps the dist/prev arrays of a finished single-source run, unreachable vertices have dist MAX_VALUE.
+
+    ShortestPathTree(int source, int[] dist, int[] prev) {
+        this.source = source;
+        this.dist = dist;
+        this.prev = prev;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    // Returns the number of vertices covered by the tree.
+
+    public int getSize() {
+        return dist.length;
+    }
+
+    // Checks whether v is reachable from the source.
+
+    public boolean hasPathTo(int v) {
+        return dist[v] != Integer.MAX_VALUE;
+    }
+
+    // Returns the shortest distance from the source to v, or Integer.MAX_VALUE if unreachable.
+
+    public int distTo(int v) {
+        return dist[v];
+    }
+
+    // Returns the predecessor of v on its shortest path, or -1 for the source and unreachable vertices.
+
+    public int parent(int v) {
+        return prev[v];
+    }
+
+    // Returns the shortest path from the source to v, empty if v is unreachable.
+
+    public List<Integer> pathTo(int v) {
+        if (!hasPathTo(v)) {
+            return new ArrayList<>();
+        }
+        return buildPath(prev, v);
+    }
+
+    // Walks prev from dst back to -1 and returns the path in forward order in O(path length).
+
+    static List<Integer> buildPath(int[] prev, int dst) {
+        int len = 0;
+        for (int at = dst; at != -1; at = prev[at]) {
+            len++;
+        }
+        Integer[] path = new Integer[len];
+        for (int at = dst; at != -1; at = prev[at]) {
+            path[--len] = at;
+        }
+        return new ArrayList<>(Arrays.asList(path));
+    }
+}
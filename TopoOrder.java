@@ -0,0 +1,32 @@
+import java.util.*;
+
+public final class TopoOrder {
+
+    private final List<Integer> order;
+    private final List<Integer> cycle;
+
+    // Exactly one of order and cycle is non-null.
+
+    TopoOrder(List<Integer> order, List<Integer> cycle) {
+        this.order = order;
+        this.cycle = cycle;
+    }
+
+    // Checks whether the graph was a DAG.
+
+    public boolean isDag() {
+        return order != null;
+    }
+
+    // Returns the topological order, or null if the graph has a cycle.
+
+    public List<Integer> getOrder() {
+        return order;
+    }
+
+    // Returns the vertices of one cycle in edge order, or null if the graph is a DAG.
+
+    public List<Integer> getCycle() {
+        return cycle;
+    }
+}
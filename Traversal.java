@@ -0,0 +1,202 @@
+import java.util.*;
+
+public final class Traversal {
+
+    private Traversal() {
+    }
+
+    // Scratch buffers for bfs/dfs, grown on demand and reused across runs so a traversal allocates nothing.
+
+    public static final class Workspace {
+
+        private long[] visited = new long[0];
+        private int[] order = new int[0];
+        private int[] stack = new int[0];
+        private int[] cursor = new int[0];
+        private int count;
+
+        public Workspace() {
+        }
+
+        // Presizes the workspace for graphs with up to n vertices.
+
+        public Workspace(int n) {
+            ensureCapacity(n);
+        }
+
+        // Grows the buffers to hold n vertices and clears the visited bits.
+
+        void reset(int n) {
+            ensureCapacity(n);
+            Arrays.fill(visited, 0, (n + 63) >>> 6, 0L);
+            count = 0;
+        }
+
+        private void ensureCapacity(int n) {
+            if (order.length < n) {
+                visited = new long[(n + 63) >>> 6];
+                order = new int[n];
+                stack = new int[n];
+                cursor = new int[n];
+            }
+        }
+
+        // Visit order of the last run, only the first count() entries are valid.
+
+        public int[] order() {
+            return order;
+        }
+
+        // Number of vertices visited by the last run.
+
+        public int count() {
+            return count;
+        }
+
+        // Copies the last visit order into a new list.
+
+        public List<Integer> toList() {
+            List<Integer> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                list.add(order[i]);
+            }
+            return list;
+        }
+
+        private boolean isVisited(int v) {
+            return (visited[v >>> 6] & (1L << v)) != 0;
+        }
+
+        private void visit(int v) {
+            visited[v >>> 6] |= 1L << v;
+        }
+    }
+
+    // Bfs from start over every vertex, continuing from the smallest unvisited vertex when the queue empties.
+    // Same order as Algo.bfs, returns the number of vertices written to ws.order().
+
+    public static int bfs(IndexedGraph g, int start, Workspace ws) {
+        bfs(g, start, ws, null);
+        return ws.count;
+    }
+
+    // Full-graph bfs from vertex 0 that writes the traversal tree id of every vertex into label.
+    // On an undirected graph these are its connected components, returns how many there are.
+
+    public static int components(IndexedGraph g, int[] label, Workspace ws) {
+        if (label.length < g.getSize()) {
+            throw new IllegalArgumentException("Label array smaller than graph");
+        }
+        return bfs(g, 0, ws, label);
+    }
+
+    // Shared bfs loop, labels vertices when label is non-null and returns the number of trees.
+
+    private static int bfs(IndexedGraph g, int start, Workspace ws, int[] label) {
+        int n = g.getSize();
+        ws.reset(n);
+        if (start < 0 || start >= n) {
+            return 0;
+        }
+
+        // Each vertex is enqueued once and dequeued in the same order, so the order buffer is the queue
+        int[] queue = ws.order;
+        int head = 0;
+        int tail = 0;
+        int comp = 0;
+        // Every vertex below next is already visited, so restarts never rescan from 0
+        int next = 0;
+        ws.visit(start);
+        queue[tail++] = start;
+        if (label != null) {
+            label[start] = comp;
+        }
+
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                int v = g.target(i);
+                if (!ws.isVisited(v)) {
+                    ws.visit(v);
+                    queue[tail++] = v;
+                    if (label != null) {
+                        label[v] = comp;
+                    }
+                }
+            }
+
+            // If queue is empty but nodes remain unvisited, enqueue the next unvisited
+            if (head == tail && tail < n) {
+                while (ws.isVisited(next)) {
+                    next++;
+                }
+                comp++;
+                ws.visit(next);
+                queue[tail++] = next;
+                if (label != null) {
+                    label[next] = comp;
+                }
+            }
+        }
+        ws.count = tail;
+        return comp + 1;
+    }
+
+    // Dfs from start over every vertex, continuing from the smallest unvisited vertex when the stack empties.
+    // Same order as Algo.dfs, returns the number of vertices written to ws.order().
+
+    public static int dfs(IndexedGraph g, int start, Workspace ws) {
+        int n = g.getSize();
+        ws.reset(n);
+        if (start < 0 || start >= n) {
+            return 0;
+        }
+
+        // Keeps a per-frame edge cursor instead of pushing every neighbor, so the stack never exceeds n
+        int[] order = ws.order;
+        int[] stack = ws.stack;
+        int[] cursor = ws.cursor;
+        int count = 0;
+        int top = 0;
+        int next = start;
+        // Every vertex below scan is already visited, so restarts never rescan from 0
+        int scan = 0;
+
+        while (next != -1) {
+            ws.visit(next);
+            order[count++] = next;
+            stack[top] = next;
+            cursor[top++] = g.start(next);
+
+            while (top > 0) {
+                int u = stack[top - 1];
+                int i = cursor[top - 1];
+                int end = g.end(u);
+                while (i < end && ws.isVisited(g.target(i))) {
+                    i++;
+                }
+                if (i == end) {
+                    top--;
+                    continue;
+                }
+                cursor[top - 1] = i + 1;
+                int v = g.target(i);
+                ws.visit(v);
+                order[count++] = v;
+                stack[top] = v;
+                cursor[top++] = g.start(v);
+            }
+
+            // If stack is empty but nodes remain unvisited, start from the next unvisited
+            next = -1;
+            if (count < n) {
+                while (ws.isVisited(scan)) {
+                    scan++;
+                }
+                next = scan;
+            }
+        }
+        ws.count = count;
+        return count;
+    }
+}
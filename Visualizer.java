@@ -1,105 +1,318 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
-public class Visualizer extends JPanel implements MouseListener {
+public class Visualizer extends JPanel implements MouseListener, MouseMotionListener, MouseWheelListener {
 
     private final List<Point> nodes;
     private final List<int[]> edges;
-    private final Graph graph;
+    private Graph graph;
     private final int radius = 20;
     private int selectedNode = -1;
 
-    private List<Integer> fullPath = new ArrayList<>();
-    private List<Integer> highlightedPath = new ArrayList<>();
+    // Node positions in world coordinates, indexed for clicks and for finding what is on screen
+    private final NodeGrid grid = new NodeGrid(2 * radius);
+    // Edges at each node as linked lists threaded through edgeNext: slot 2e sits in the list of edge e's
+    // first node, 2e + 1 in its second's. The layer finds the edges to draw through the nodes near the
+    // view, edgeStamp marks those already drawn in the current pass.
+    private int[] edgeHead = new int[INITIAL_CAPACITY];
+    private int[] edgeNext = new int[2 * INITIAL_CAPACITY];
+    private int[] edgeStamp = new int[INITIAL_CAPACITY];
+    private int layerPass;
+    // Longest edge in world units, an edge crossing the view has an end within this distance of it
+    private int maxEdgeLength;
+    private static final Stroke EDGE_STROKE = new BasicStroke(2);
+
+    // Graph starts small and doubles whenever the nodes outgrow it
+    private static final int INITIAL_CAPACITY = 128;
+
+    // View transform, screen = world * scale + offset. The wheel zooms, right or middle drag pans.
+    private static final double MIN_SCALE = 0.02;
+    private static final double MAX_SCALE = 8;
+    // Labels are skipped below this scale, where they would overlap into noise
+    private static final double LABEL_SCALE = 0.5;
+    private double scale = 1;
+    private double offsetX;
+    private double offsetY;
+    private Point panFrom;
+
+    // Edges and uncolored nodes for the current view, drawn once and reused until the graph, a mode or
+    // the view changes. Steps of an algorithm only repaint the nodes they touch on top of it.
+    private BufferedImage layer;
+    private boolean layerStale = true;
+    private long layerVersion = -1;
+    private double layerOffsetX;
+    private double layerOffsetY;
+    private double layerScale = 1;
+
+    // The wheel only rescales the cached layer; it is redrawn once the wheel has been still this long
+    private static final int ZOOM_SETTLE_MS = 150;
+    private final Timer zoomSettle = new Timer(ZOOM_SETTLE_MS, e -> invalidateLayer());
+
+    // Nodes smaller than this on screen are drawn as plain squares
+    private static final int MIN_OVAL_RADIUS = 3;
+
+    // Moves of more events than this repaint the whole panel instead of node by node
+    private static final int DIRTY_LIMIT = 256;
+
+    // Trace of the algorithm being stepped through and the step on screen. Done vertices are drawn
+    // orange, vertices waiting in the queue pink.
+    private AlgoTrace trace = new AlgoTrace(0);
+    private AlgoTrace.Cursor cursor = trace.cursor();
+    private final BitSet explored = new BitSet();
     private Timer timer;
-    private int highlightIndex = -1;
 
-    private static final int MAX_NODES = 100;
     private boolean isDirected = false;
     private boolean isWeighted = false;
     private boolean quizMode = false;
 
+    // Results cache over the last dummy graph, rebuilt only when the edges or node count change
+    private static final int CACHE_CAPACITY = 64;
+    private AlgoCache cache;
+    private long cacheVersion = -1;
+    private int cacheNodes = -1;
+
+    // Algorithm running in the background, null when idle. The graph must not change while it runs.
+    private AlgoWorker<?> running;
+    private final JLabel status = new JLabel("Idle");
+    private final JButton cancelButton = new JButton("Cancel");
+
     
     // Constructor for data structures and mouse listener.
 
     public Visualizer() {
         this.nodes = new ArrayList<>();
         this.edges = new ArrayList<>();
-        this.graph = new Graph(MAX_NODES);
+        this.graph = new Graph(INITIAL_CAPACITY);
+        setBackground(Color.WHITE);
         addMouseListener(this);
+        addMouseMotionListener(this);
+        addMouseWheelListener(this);
+        Arrays.fill(edgeHead, -1);
+        zoomSettle.setRepeats(false);
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> {
+            if (running != null) {
+                running.stop();
+            }
+        });
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        setBackground(Color.WHITE);
+        Graphics2D g2 = (Graphics2D) g;
+
+        // Edges and plain nodes come from the cached layer; while panning or zooming it is shifted and
+        // scaled, not redrawn
+        if (panFrom == null && layerIsStale()) {
+            renderLayer();
+        }
+        if (layer != null) {
+            double k = scale / layerScale;
+            int x = (int) Math.round(offsetX - layerOffsetX * k);
+            int y = (int) Math.round(offsetY - layerOffsetY * k);
+            if (k == 1) {
+                g.drawImage(layer, x, y, null);
+            } else {
+                g.drawImage(layer, x, y, (int) Math.round(layer.getWidth() * k),
+                    (int) Math.round(layer.getHeight() * k), null);
+            }
+        }
+
+        // Draw nodes an algorithm colored on top, only inside the area being repainted
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2.setStroke(EDGE_STROKE);
+        forEachNodeIn(clip, i -> {
+            Color color = nodeColor(i);
+            if (color != Color.CYAN) {
+                drawNode(g2, i, color);
+            }
+        });
+    }
+
+    private Color nodeColor(int i) {
+        if (cursor.isDone(i)) {
+            return Color.ORANGE;
+        } else if (cursor.isReached(i)) {
+            return Color.PINK;
+        } else if (explored.get(i)) {
+            return Color.YELLOW;
+        }
+        return Color.CYAN;
+    }
+
+    // Redraws edges, weights and uncolored nodes for the current view into the offscreen layer. Edges
+    // come from the nodes the grid finds within maxEdgeLength of the view, so zoomed in only the part
+    // of the graph near the screen is looked at; those whose bounding box misses the panel are skipped.
 
-        // Draw edges first
+    private void renderLayer() {
+        int w = Math.max(1, getWidth());
+        int h = Math.max(1, getHeight());
+        if (layer == null || layer.getWidth() != w || layer.getHeight() != h) {
+            layer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = layer.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, w, h);
+        g.setStroke(EDGE_STROKE);
         g.setColor(Color.BLACK);
-        for (int[] edge : edges) {
-            Point p1 = nodes.get(edge[0]);
-            Point p2 = nodes.get(edge[1]);
-            drawEdge(g, p1, p2, isDirected);
-            if (isWeighted) {
-                int u = edge[0];
-                int v = edge[1];
-                int w = graph.getWeight(u, v);
-                int midX = (p1.x + p2.x) / 2;
-                int midY = (p1.y + p2.y) / 2;
-                double dx = p2.x - p1.x;
-                double dy = p2.y - p1.y;
-                double dist = Math.hypot(dx, dy);
-                if (dist != 0) {
-                    double px = -dy / dist;
-                    double py = dx / dist;
-                    int labelOffset = 15;
-                    midX += (int) (px * labelOffset);
-                    midY += (int) (py * labelOffset);
+        int r = screenRadius();
+        boolean labels = isWeighted && scale >= LABEL_SCALE;
+        int pass = ++layerPass;
+        Point min = toWorld(new Point(0, 0));
+        Point max = toWorld(new Point(w, h));
+        int reach = radius + maxEdgeLength;
+        grid.query(min.x - reach, min.y - reach, max.x + reach, max.y + reach, i -> {
+            // Nodes added after the last edge may lie past the end of edgeHead
+            for (int slot = i < edgeHead.length ? edgeHead[i] : -1; slot != -1; slot = edgeNext[slot]) {
+                int e = slot >>> 1;
+                if (edgeStamp[e] == pass) {
+                    continue;
+                }
+                edgeStamp[e] = pass;
+                int[] edge = edges.get(e);
+                Point a = nodes.get(edge[0]);
+                Point b = nodes.get(edge[1]);
+                int x1 = (int) Math.round(a.x * scale + offsetX);
+                int y1 = (int) Math.round(a.y * scale + offsetY);
+                int x2 = (int) Math.round(b.x * scale + offsetX);
+                int y2 = (int) Math.round(b.y * scale + offsetY);
+                if (Math.max(x1, x2) < -r || Math.min(x1, x2) > w + r
+                        || Math.max(y1, y2) < -r || Math.min(y1, y2) > h + r) {
+                    continue;
+                }
+                drawEdge(g, x1, y1, x2, y2, isDirected);
+                if (labels) {
+                    drawWeight(g, edge[0], edge[1], x1, y1, x2, y2);
                 }
-                g.setColor(Color.RED);
-                g.drawString(String.valueOf(w), midX, midY);
-                g.setColor(Color.BLACK);
             }
-        }
+        });
 
         // Draw nodes on top of edges
-        for (int i = 0; i < nodes.size(); i++) {
-            Point p = nodes.get(i);
-            if (highlightedPath.contains(i)) {
-                g.setColor(Color.ORANGE);
-            } else {
-                g.setColor(Color.CYAN);
-            }
-            g.fillOval(p.x - radius, p.y - radius, 2 * radius, 2 * radius);
-            g.setColor(Color.BLACK);
-            g.drawOval(p.x - radius, p.y - radius, 2 * radius, 2 * radius);
+        forEachNodeIn(new Rectangle(0, 0, w, h), i -> drawNode(g, i, Color.CYAN));
+        g.dispose();
+
+        layerStale = false;
+        layerVersion = graph.getVersion();
+        layerOffsetX = offsetX;
+        layerOffsetY = offsetY;
+        layerScale = scale;
+    }
+
+    // Writes the weight of u -> v in red beside the middle of the edge, offset to its left.
+
+    private void drawWeight(Graphics2D g, int u, int v, int x1, int y1, int x2, int y2) {
+        int weight = graph.getWeight(u, v);
+        int midX = (x1 + x2) / 2;
+        int midY = (y1 + y2) / 2;
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dist = Math.hypot(dx, dy);
+        if (dist != 0) {
+            double px = -dy / dist;
+            double py = dx / dist;
+            int labelOffset = 15;
+            midX += (int) (px * labelOffset);
+            midY += (int) (py * labelOffset);
+        }
+        g.setColor(Color.RED);
+        g.drawString(String.valueOf(weight), midX, midY);
+        g.setColor(Color.BLACK);
+    }
+
+    private boolean layerIsStale() {
+        return layerStale || layer == null || layer.getWidth() != getWidth() || layer.getHeight() != getHeight()
+            || layerVersion != graph.getVersion();
+    }
+
+    // Drops the cached layer after anything that changes edges, nodes, modes or the view.
+
+    private void invalidateLayer() {
+        layerStale = true;
+        repaint();
+    }
+
+    private void drawNode(Graphics2D g, int i, Color color) {
+        Point p = toScreen(nodes.get(i));
+        int r = screenRadius();
+        g.setColor(color);
+        if (r < MIN_OVAL_RADIUS) {
+            // A few pixels wide, where a square looks the same and draws many times faster than an oval
+            g.fillRect(p.x - r, p.y - r, 2 * r, 2 * r);
+            return;
+        }
+        g.fillOval(p.x - r, p.y - r, 2 * r, 2 * r);
+        g.setColor(Color.BLACK);
+        g.drawOval(p.x - r, p.y - r, 2 * r, 2 * r);
+        if (scale >= LABEL_SCALE) {
             g.drawString(Integer.toString(i), p.x - 5, p.y + 5);
         }
     }
 
-    
-    // Draws an edge with directed arrows for directed graphs.
-    private void drawEdge(Graphics g, Point p1, Point p2, boolean directed) {
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setStroke(new BasicStroke(2));
-        double dx = p2.x - p1.x;
-        double dy = p2.y - p1.y;
+    // Calls action with every node whose disc overlaps the screen rectangle.
+
+    private void forEachNodeIn(Rectangle area, IntConsumer action) {
+        Point min = toWorld(new Point(area.x, area.y));
+        Point max = toWorld(new Point(area.x + area.width, area.y + area.height));
+        grid.query(min.x - radius, min.y - radius, max.x + radius, max.y + radius, action);
+    }
+
+    // Repaints only the disc of node v.
+
+    private void repaintNode(int v) {
+        if (v < 0 || v >= nodes.size()) {
+            return;
+        }
+        Point p = toScreen(nodes.get(v));
+        int r = screenRadius() + 2;
+        repaint(p.x - r, p.y - r, 2 * r, 2 * r);
+    }
+
+    private int screenRadius() {
+        return Math.max(1, (int) Math.round(radius * scale));
+    }
+
+    private Point toScreen(Point world) {
+        return new Point((int) Math.round(world.x * scale + offsetX), (int) Math.round(world.y * scale + offsetY));
+    }
+
+    private Point toWorld(Point screen) {
+        return new Point((int) Math.floor((screen.x - offsetX) / scale), (int) Math.floor((screen.y - offsetY) / scale));
+    }
+
+    // Draws an edge with directed arrows for directed graphs, between points in screen coordinates.
+    // The caller sets the stroke once for all edges. Arrows are left out when zoomed out far enough
+    // that they would be larger than the nodes.
+    private void drawEdge(Graphics2D g2, int x1, int y1, int x2, int y2, boolean directed) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
         double dist = Math.hypot(dx, dy);
         if (dist == 0) {
             return;
         }
-        int startX = (int) (p1.x + dx * radius / dist);
-        int startY = (int) (p1.y + dy * radius / dist);
-        int endX = (int) (p2.x - dx * radius / dist);
-        int endY = (int) (p2.y - dy * radius / dist);
+        int r = screenRadius();
+        int startX = (int) (x1 + dx * r / dist);
+        int startY = (int) (y1 + dy * r / dist);
+        int endX = (int) (x2 - dx * r / dist);
+        int endY = (int) (y2 - dy * r / dist);
         g2.drawLine(startX, startY, endX, endY);
 
-        if (directed) {
+        if (directed && scale >= LABEL_SCALE) {
             double theta = Math.atan2(endY - startY, endX - startX);
             double phi = Math.toRadians(30);
             int barb = 10;
@@ -119,15 +332,20 @@ public class Visualizer extends JPanel implements MouseListener {
 
     @Override
     public void mousePressed(MouseEvent e) {
-        Point click = e.getPoint();
+        if (!SwingUtilities.isLeftMouseButton(e)) {
+            panFrom = e.getPoint();
+            return;
+        }
+        if (rejectWhileBusy()) {
+            return;
+        }
+        Point click = toWorld(e.getPoint());
         int nodeIdx = getNodeAt(click);
         if (nodeIdx == -1) {
-            if (nodes.size() < MAX_NODES) {
-                nodes.add(click);
-                repaint();
-            } else {
-                JOptionPane.showMessageDialog(this, "Max number of nodes reached!");
-            }
+            ensureCapacity(nodes.size() + 1);
+            nodes.add(click);
+            grid.add(click.x, click.y);
+            invalidateLayer();
         } else {
             if (selectedNode == -1) {
                 selectedNode = nodeIdx;
@@ -168,35 +386,105 @@ public class Visualizer extends JPanel implements MouseListener {
                     if (!isDirected) {
                         graph.addEdge(nodeIdx, selectedNode, w);
                     }
-                    edges.add(new int[]{selectedNode, nodeIdx});
+                    addDrawnEdge(selectedNode, nodeIdx);
                 }
                 selectedNode = -1;
-                repaint();
+                invalidateLayer();
             }
         }
     }
 
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        if (panFrom != null) {
+            offsetX += e.getX() - panFrom.x;
+            offsetY += e.getY() - panFrom.y;
+            panFrom = e.getPoint();
+            repaint();
+        }
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        if (panFrom != null) {
+            panFrom = null;
+            invalidateLayer();
+        }
+    }
+
+    // Zooms around the mouse pointer, keeping the point under it in place. Each notch repaints the
+    // current layer scaled, which is cheap; the layer itself is redrawn once the wheel stops.
+
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        double next = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * Math.pow(1.1, -e.getPreciseWheelRotation())));
+        double worldX = (e.getX() - offsetX) / scale;
+        double worldY = (e.getY() - offsetY) / scale;
+        scale = next;
+        offsetX = e.getX() - worldX * scale;
+        offsetY = e.getY() - worldY * scale;
+        zoomSettle.restart();
+        repaint();
+    }
+
+    // Node under the world point p, the lowest index if discs overlap.
+
     private int getNodeAt(Point p) {
-        for (int i = 0; i < nodes.size(); i++) {
-            if (nodes.get(i).distance(p) <= radius) {
-                return i;
-            }
+        return grid.hit(p.x, p.y, radius);
+    }
+
+    // Appends the drawn edge u -> v, or u - v when undirected, and links it into both nodes' lists.
+
+    private void addDrawnEdge(int u, int v) {
+        int e = edges.size();
+        edges.add(new int[]{u, v});
+        if (Math.max(u, v) >= edgeHead.length) {
+            int old = edgeHead.length;
+            edgeHead = Arrays.copyOf(edgeHead, Math.max(Math.max(u, v) + 1, 2 * old));
+            Arrays.fill(edgeHead, old, edgeHead.length, -1);
+        }
+        if (e == edgeStamp.length) {
+            edgeStamp = Arrays.copyOf(edgeStamp, 2 * e);
+            edgeNext = Arrays.copyOf(edgeNext, 4 * e);
         }
-        return -1;
+        edgeNext[2 * e] = edgeHead[u];
+        edgeHead[u] = 2 * e;
+        edgeNext[2 * e + 1] = edgeHead[v];
+        edgeHead[v] = 2 * e + 1;
+        Point a = nodes.get(u);
+        Point b = nodes.get(v);
+        maxEdgeLength = Math.max(maxEdgeLength, (int) Math.ceil(Math.hypot(a.x - b.x, a.y - b.y)));
     }
 
-    public void visualize(List<Integer> path) {
-        highlightedPath.clear();
-        highlightIndex = 0;
-        if (timer != null) {
-            timer.stop();
+    private void clearDrawnEdges() {
+        edges.clear();
+        Arrays.fill(edgeHead, -1);
+        maxEdgeLength = 0;
+    }
+
+    // Moves the graph into a bigger one when n nodes would not fit, doubling so growth stays amortized.
+
+    private void ensureCapacity(int n) {
+        if (n <= graph.getSize()) {
+            return;
         }
+        int[] weights = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            int[] edge = edges.get(i);
+            weights[i] = graph.getWeight(edge[0], edge[1]);
+        }
+        graph = new Graph(Math.max(n, 2 * graph.getSize()));
+        int[][] batch = edgeBatch(weights);
+        graph.addEdges(batch[0], batch[1], batch[2]);
+        cache = null;
+    }
+
+    // Plays path back one vertex every half second.
+
+    public void visualize(List<Integer> path) {
+        setTrace(AlgoTrace.ofOrder(nodes.size(), path));
         timer = new Timer(500, e -> {
-            if (highlightIndex < path.size()) {
-                highlightedPath.add(path.get(highlightIndex));
-                highlightIndex++;
-                repaint();
-            } else {
+            if (!moveCursor(true)) {
                 ((Timer) e.getSource()).stop();
             }
         });
@@ -204,63 +492,228 @@ public class Visualizer extends JPanel implements MouseListener {
     }
 
     public void setPath(List<Integer> path) {
-        fullPath = new ArrayList<>(path);
-        highlightedPath.clear();
-        highlightIndex = -1;
+        setTrace(AlgoTrace.ofOrder(nodes.size(), path));
+    }
+
+    // Shows trace at step 0, ready for Next Step and Prev Step.
+
+    public void setTrace(AlgoTrace t) {
+        stopTimer();
+        trace = t;
+        cursor = t.cursor();
+        explored.clear();
         repaint();
     }
 
     public void nextStep() {
-        if (highlightIndex < fullPath.size() - 1) {
-            highlightIndex++;
-            highlightedPath.add(fullPath.get(highlightIndex));
-            repaint();
-        }
+        moveCursor(true);
     }
 
     public void prevStep() {
-        if (highlightIndex >= 0) {
-            highlightedPath.remove(highlightIndex);
-            highlightIndex--;
+        moveCursor(false);
+    }
+
+    // Steps the cursor and repaints the nodes whose state the step changed. Returns false at either end.
+
+    private boolean moveCursor(boolean forward) {
+        int from = cursor.event();
+        if (!(forward ? cursor.next() : cursor.previous())) {
+            return false;
+        }
+        int to = cursor.event();
+        if (Math.abs(to - from) > DIRTY_LIMIT) {
             repaint();
+        } else {
+            for (int i = Math.min(from, to); i < Math.max(from, to); i++) {
+                repaintNode(trace.vertex(i));
+            }
+        }
+        return true;
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    // Runs A* from src to dst with the straight-line distance between the drawn nodes as heuristic.
+
+    public SearchResult astar(int src, int dst) {
+        CsrGraph g = getGraph().freeze();
+        int n = g.getSize();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = nodes.get(i).x;
+            y[i] = nodes.get(i).y;
+        }
+        return Algo.astarSearch(g, src, dst, Heuristic.euclidean(g, x, y));
+    }
+
+    // Shows the path and shades the vertices the search settled along the way.
+
+    public void showSearch(SearchResult result) {
+        setPath(result.getPath());
+        for (int v : result.getSettled()) {
+            explored.set(v);
+        }
+        repaint();
+    }
+
+    // Live view of the panel's graph limited to the nodes drawn so far, with the real edge weights.
+
+    public GraphView getGraph() {
+        return graph.view(nodes.size());
+    }
+
+    // Returns the algorithm cache, starting a fresh one if the panel's graph or node count changed.
+
+    public AlgoCache algoCache() {
+        if (cache == null || cacheVersion != graph.getVersion() || cacheNodes != nodes.size()) {
+            cache = new AlgoCache(getGraph(), CACHE_CAPACITY);
+            cacheVersion = graph.getVersion();
+            cacheNodes = nodes.size();
+        }
+        return cache;
+    }
+
+    public JLabel getStatusLabel() {
+        return status;
+    }
+
+    public JButton getCancelButton() {
+        return cancelButton;
+    }
+
+    public boolean isBusy() {
+        return running != null;
+    }
+
+    // Tells the user to wait and returns true if an algorithm is still reading the graph.
+
+    private boolean rejectWhileBusy() {
+        if (running == null) {
+            return false;
         }
+        JOptionPane.showMessageDialog(this, "An algorithm is still running. Wait for it or press Cancel.");
+        return true;
     }
 
-    public Graph getGraph() {
-        return dummyGraph();
+    // Runs job on a background thread so the window stays responsive, showing the vertices settled so
+    // far in the status label. done receives the result on the event thread; it is not called if the job
+    // fails or is cancelled. Only one job runs at a time.
+
+    public <T> void runAlgorithm(String name, Callable<T> job, Consumer<T> done) {
+        if (rejectWhileBusy()) {
+            return;
+        }
+        AlgoWorker<T> worker = new AlgoWorker<>(name, job, done);
+        running = worker;
+        cancelButton.setEnabled(true);
+        status.setText(name + ": running");
+        worker.execute();
     }
 
-    public Graph dummyGraph() {
-        Graph dummy = new Graph(nodes.size());
-        for (int[] e : edges) {
-            dummy.addEdge(e[0], e[1], 1);
+    private final class AlgoWorker<T> extends SwingWorker<T, Long> {
+        private final String name;
+        private final Callable<T> job;
+        private final Consumer<T> done;
+        private final AlgoProgress progress = new AlgoProgress(settled -> publish(settled));
+
+        AlgoWorker(String name, Callable<T> job, Consumer<T> done) {
+            this.name = name;
+            this.job = job;
+            this.done = done;
+        }
+
+        // Stops the job at its next checkpoint. The worker is not cancelled directly so that it stays
+        // busy until the background thread has really let go of the graph.
+
+        void stop() {
+            progress.cancel();
+            status.setText(name + ": cancelling");
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return progress.run(job);
+        }
+
+        @Override
+        protected void process(List<Long> chunks) {
+            if (!progress.isCancelled()) {
+                status.setText(name + ": " + chunks.get(chunks.size() - 1) + " vertices settled");
+            }
+        }
+
+        @Override
+        protected void done() {
+            running = null;
+            cancelButton.setEnabled(false);
+            T result;
+            try {
+                result = get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof CancellationException) {
+                    status.setText(name + ": cancelled");
+                } else {
+                    status.setText(name + ": failed");
+                    JOptionPane.showMessageDialog(Visualizer.this, name + " failed: " + cause.getMessage());
+                }
+                return;
+            }
+            // Jobs without checkpoints, like reading a file, run to the end even after Cancel
+            if (progress.isCancelled()) {
+                status.setText(name + ": cancelled");
+                return;
+            }
+            status.setText(name + ": done");
+            done.accept(result);
+        }
+    }
+
+    // Collects every edge as {us, vs, ws} for Graph.addEdges, adding reverse edges when undirected.
+    // Weights come from weights[i] for edges.get(i).
+
+    private int[][] edgeBatch(int[] weights) {
+        int copies = isDirected ? 1 : 2;
+        int[] us = new int[edges.size() * copies];
+        int[] vs = new int[us.length];
+        int[] ws = new int[us.length];
+        int k = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            int[] e = edges.get(i);
+            int w = weights[i];
+            us[k] = e[0];
+            vs[k] = e[1];
+            ws[k++] = w;
             if (!isDirected) {
-                dummy.addEdge(e[1], e[0], 1);
+                us[k] = e[1];
+                vs[k] = e[0];
+                ws[k++] = w;
             }
         }
-        return dummy;
+        return new int[][]{us, vs, ws};
     }
 
     public void toggleDirected() {
         // Preserve existing weights
-        Map<String, Integer> oldWeights = new HashMap<>();
-        for (int[] edge : edges) {
-            String key = edge[0] + "," + edge[1];
-            oldWeights.put(key, graph.getWeight(edge[0], edge[1]));
+        int[] oldWeights = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            int[] edge = edges.get(i);
+            oldWeights[i] = graph.getWeight(edge[0], edge[1]);
         }
         graph.clear();
         isDirected = !isDirected;
         // Reinsert edges
-        for (int[] edge : edges) {
-            int u = edge[0];
-            int v = edge[1];
-            int w = oldWeights.get(u + "," + v);
-            graph.addEdge(u, v, w);
-            if (!isDirected) {
-                graph.addEdge(v, u, w);
-            }
-        }
-        repaint();
+        int[][] batch = edgeBatch(oldWeights);
+        graph.addEdges(batch[0], batch[1], batch[2]);
+        invalidateLayer();
     }
 
     public void toggleWeighted() {
@@ -312,18 +765,68 @@ public class Visualizer extends JPanel implements MouseListener {
                 }
             }
         }
-        repaint();
+        invalidateLayer();
+    }
+
+    // Replaces the canvas with g, laid out row by row in a square and zoomed to fit. Arcs are kept as
+    // they are, so the panel switches to directed mode. Leaves the canvas untouched if g has edges Graph
+    // rejects, such as negative weights.
+
+    public void loadGraph(CsrGraph g) {
+        int n = g.getSize();
+        int m = g.edgeCount();
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        boolean weighted = false;
+        int k = 0;
+        for (int u = 0; u < n; u++) {
+            for (int i = g.start(u), end = g.end(u); i < end; i++) {
+                us[k] = u;
+                vs[k] = g.target(i);
+                ws[k] = g.weight(i);
+                weighted |= ws[k] != 1;
+                k++;
+            }
+        }
+        Graph loaded = new Graph(Math.max(n, INITIAL_CAPACITY));
+        loaded.addEdges(us, vs, ws);
+
+        nodes.clear();
+        clearDrawnEdges();
+        grid.clear();
+        selectedNode = -1;
+        int cols = (int) Math.ceil(Math.sqrt(n));
+        int spacing = 3 * radius;
+        for (int v = 0; v < n; v++) {
+            Point p = new Point(radius + (v % cols) * spacing, radius + (v / cols) * spacing);
+            nodes.add(p);
+            grid.add(p.x, p.y);
+        }
+        for (int i = 0; i < m; i++) {
+            addDrawnEdge(us[i], vs[i]);
+        }
+        graph = loaded;
+        cache = null;
+        isDirected = true;
+        isWeighted = weighted;
+
+        int extent = cols * spacing + radius;
+        scale = Math.max(MIN_SCALE, Math.min(1, Math.min(getWidth(), getHeight()) / (double) extent));
+        offsetX = 0;
+        offsetY = 0;
+        setTrace(new AlgoTrace(0));
+        invalidateLayer();
     }
 
     public void resetAll() {
         nodes.clear();
-        edges.clear();
-        fullPath.clear();
-        highlightedPath.clear();
+        clearDrawnEdges();
+        grid.clear();
+        setTrace(new AlgoTrace(0));
         graph.clear();
         selectedNode = -1;
-        highlightIndex = -1;
-        repaint();
+        invalidateLayer();
     }
 
     private List<Integer> parseAnswer(String input) {
@@ -352,13 +855,15 @@ public class Visualizer extends JPanel implements MouseListener {
         try {
             String in = JOptionPane.showInputDialog(this, "Quiz BFS: enter start node:");
             int start = Integer.parseInt(in.trim());
-            List<Integer> correct = Algo.bfs(dummyGraph(), start);
             String ans = JOptionPane.showInputDialog(
                 this, "Enter your BFS order (comma-separated):"
             );
             List<Integer> user = parseAnswer(ans);
-            giveFeedback(user, correct);
-            visualize(correct);
+            AlgoCache c = algoCache();
+            runAlgorithm("BFS", () -> c.bfs(start), correct -> {
+                giveFeedback(user, correct);
+                visualize(correct);
+            });
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid input. Aborting quiz.");
         }
@@ -368,13 +873,15 @@ public class Visualizer extends JPanel implements MouseListener {
         try {
             String in = JOptionPane.showInputDialog(this, "Quiz DFS: enter start node:");
             int start = Integer.parseInt(in.trim());
-            List<Integer> correct = Algo.dfs(dummyGraph(), start);
             String ans = JOptionPane.showInputDialog(
                 this, "Enter your DFS order (comma-separated):"
             );
             List<Integer> user = parseAnswer(ans);
-            giveFeedback(user, correct);
-            visualize(correct);
+            AlgoCache c = algoCache();
+            runAlgorithm("DFS", () -> c.dfs(start), correct -> {
+                giveFeedback(user, correct);
+                visualize(correct);
+            });
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid input. Aborting quiz.");
         }
@@ -386,30 +893,35 @@ public class Visualizer extends JPanel implements MouseListener {
             int src = Integer.parseInt(s1.trim());
             String s2 = JOptionPane.showInputDialog(this, "Destination node:");
             int dst = Integer.parseInt(s2.trim());
-            List<Integer> correct = Algo.dijkstra(dummyGraph(), src, dst);
             String ans = JOptionPane.showInputDialog(
                 this, "Enter shortest path (comma-separated):"
             );
             List<Integer> user = parseAnswer(ans);
-            giveFeedback(user, correct);
-            visualize(correct);
+            AlgoCache c = algoCache();
+            runAlgorithm("Dijkstra", () -> c.dijkstra(src, dst), correct -> {
+                giveFeedback(user, correct);
+                visualize(correct);
+            });
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid input. Aborting quiz.");
         }
     }
 
     private void startTopoQuiz() {
-        List<Integer> correct = Algo.toposort(dummyGraph());
         String ans = JOptionPane.showInputDialog(
             this, "Enter your topological sort order (comma-separated):"
         );
         List<Integer> user = parseAnswer(ans);
-        giveFeedback(user, correct);
-        visualize(correct);
+        AlgoCache c = algoCache();
+        runAlgorithm("Topological Sort", c::toposort, correct -> {
+            giveFeedback(user, correct);
+            visualize(correct);
+        });
     }
 
     // Main for UI and  actions.
     public static void main(String[] args) {
+        AlgoMetrics.enable();
         SwingUtilities.invokeLater(() -> {
             Visualizer panel = new Visualizer();
             JFrame frame = new JFrame("Graph Visualizer");
@@ -423,6 +935,7 @@ public class Visualizer extends JPanel implements MouseListener {
             JButton bfsButton = new JButton("BFS");
             JButton dfsButton = new JButton("DFS");
             JButton dijkstraButton = new JButton("Dijkstra");
+            JButton astarButton = new JButton("A*");
             JButton topoButton = new JButton("Topological Sort");
             JButton prevButton = new JButton("Prev Step");
             JButton nextButton = new JButton("Next Step");
@@ -430,17 +943,33 @@ public class Visualizer extends JPanel implements MouseListener {
             JButton weightToggle = new JButton("Toggle Weighted");
             JButton resetButton = new JButton("Reset All");
             JButton quizToggle = new JButton("Start Quiz");
+            JButton loadButton = new JButton("Load Graph");
 
             JLabel modeLabel = new JLabel();
             updateModeLabel(modeLabel, panel);
 
+            // Counters from the last run of each algorithm, refreshed after every run
+            JTextArea metricsArea = new JTextArea(10, 20);
+            metricsArea.setEditable(false);
+            metricsArea.setLineWrap(true);
+            metricsArea.setWrapStyleWord(true);
+            updateMetrics(metricsArea, panel);
+
             // Algorithm button listeners
             bfsButton.addActionListener(e -> {
                 if (!panel.quizMode) {
                     String input = JOptionPane.showInputDialog("Start node for BFS:");
                     int start = Integer.parseInt(input.trim());
-                    List<Integer> order = Algo.bfs(panel.getGraph(), start);
-                    panel.setPath(order);
+                    // Runs past the cache since the trace, not just the order, is what gets stepped through
+                    GraphView g = panel.getGraph();
+                    panel.runAlgorithm("BFS", () -> {
+                        AlgoTrace trace = new AlgoTrace(g.getSize());
+                        Algo.bfs(g, start, trace);
+                        return trace;
+                    }, trace -> {
+                        panel.setTrace(trace);
+                        updateMetrics(metricsArea, panel);
+                    });
                 } else {
                     panel.startBFSQuiz();
                 }
@@ -449,8 +978,16 @@ public class Visualizer extends JPanel implements MouseListener {
                 if (!panel.quizMode) {
                     String input = JOptionPane.showInputDialog("Start node for DFS:");
                     int start = Integer.parseInt(input.trim());
-                    List<Integer> order = Algo.dfs(panel.getGraph(), start);
-                    panel.setPath(order);
+                    // Runs past the cache since the trace, not just the order, is what gets stepped through
+                    GraphView g = panel.getGraph();
+                    panel.runAlgorithm("DFS", () -> {
+                        AlgoTrace trace = new AlgoTrace(g.getSize());
+                        Algo.dfs(g, start, trace);
+                        return trace;
+                    }, trace -> {
+                        panel.setTrace(trace);
+                        updateMetrics(metricsArea, panel);
+                    });
                 } else {
                     panel.startDFSQuiz();
                 }
@@ -461,20 +998,46 @@ public class Visualizer extends JPanel implements MouseListener {
                     int src = Integer.parseInt(s1.trim());
                     String s2 = JOptionPane.showInputDialog("Destination node for Dijkstra:");
                     int dst = Integer.parseInt(s2.trim());
-                    List<Integer> path = Algo.dijkstra(panel.getGraph(), src, dst);
-                    panel.setPath(path);
+                    AlgoCache cache = panel.algoCache();
+                    panel.runAlgorithm("Dijkstra", () -> cache.dijkstra(src, dst), path -> {
+                        panel.setPath(path);
+                        updateMetrics(metricsArea, panel);
+                    });
                 } else {
                     panel.startDijkstraQuiz();
                 }
             });
+            astarButton.addActionListener(e -> {
+                String s1 = JOptionPane.showInputDialog("Source node for A*:");
+                int src = Integer.parseInt(s1.trim());
+                String s2 = JOptionPane.showInputDialog("Destination node for A*:");
+                int dst = Integer.parseInt(s2.trim());
+                // Element 0 is the A* run, element 1 the same search without a heuristic
+                panel.runAlgorithm("A*", () -> new SearchResult[]{
+                    panel.astar(src, dst),
+                    Algo.astarSearch(panel.getGraph().freeze(), src, dst, Heuristic.zero())
+                }, results -> {
+                    panel.showSearch(results[0]);
+                    JOptionPane.showMessageDialog(panel, "A* explored " + results[0].settledCount()
+                        + " nodes (shaded), Dijkstra would explore " + results[1].settledCount() + ".");
+                });
+            });
             topoButton.addActionListener(e -> {
                 if (!panel.quizMode) {
-                    List<Integer> order = Algo.toposort(panel.getGraph());
-                    if (order == null) {
-                        JOptionPane.showMessageDialog(panel, "Graph is not a DAG.");
-                    } else {
-                        panel.setPath(order);
-                    }
+                    AlgoCache cache = panel.algoCache();
+                    GraphView g = panel.getGraph();
+                    panel.runAlgorithm("Topological Sort", () -> {
+                        // A cycle is looked for here too, Kahn's pass costs as much as the sort
+                        List<Integer> order = cache.toposort();
+                        return order != null ? new TopoOrder(order, null) : Algo.toposortKahn(g);
+                    }, topo -> {
+                        updateMetrics(metricsArea, panel);
+                        if (!topo.isDag()) {
+                            JOptionPane.showMessageDialog(panel, "Graph is not a DAG.\nCycle: " + topo.getCycle());
+                        } else {
+                            panel.setPath(topo.getOrder());
+                        }
+                    });
                 } else {
                     panel.startTopoQuiz();
                 }
@@ -486,6 +1049,9 @@ public class Visualizer extends JPanel implements MouseListener {
 
             // Toggle directed/undirected
             toggleButton.addActionListener(e -> {
+                if (panel.rejectWhileBusy()) {
+                    return;
+                }
                 panel.toggleDirected();
                 String mode = (panel.isDirected ? "DIRECTED" : "UNDIRECTED") +
                               " / " +
@@ -496,6 +1062,9 @@ public class Visualizer extends JPanel implements MouseListener {
 
             // Toggle weighted/unweighted
             weightToggle.addActionListener(e -> {
+                if (panel.rejectWhileBusy()) {
+                    return;
+                }
                 panel.toggleWeighted();
                 String mode = (panel.isDirected ? "DIRECTED" : "UNDIRECTED") +
                               " / " +
@@ -504,8 +1073,32 @@ public class Visualizer extends JPanel implements MouseListener {
                 updateModeLabel(modeLabel, panel);
             });
 
+            // Load a graph file, read in the background since large files take a while
+            loadButton.addActionListener(e -> {
+                if (panel.rejectWhileBusy()) {
+                    return;
+                }
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showOpenDialog(panel) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                Path file = chooser.getSelectedFile().toPath();
+                panel.runAlgorithm("Load", () -> new GraphImporter(GraphImporter.Format.of(file)).read(file), g -> {
+                    try {
+                        panel.loadGraph(g);
+                    } catch (IllegalArgumentException ex) {
+                        JOptionPane.showMessageDialog(panel, "Cannot show " + file.getFileName() + ": " + ex.getMessage());
+                    }
+                    updateModeLabel(modeLabel, panel);
+                });
+            });
+
             // Reset
-            resetButton.addActionListener(e -> panel.resetAll());
+            resetButton.addActionListener(e -> {
+                if (!panel.rejectWhileBusy()) {
+                    panel.resetAll();
+                }
+            });
 
             // Quiz mode toggle
             quizToggle.addActionListener(e -> {
@@ -522,11 +1115,14 @@ public class Visualizer extends JPanel implements MouseListener {
             explanation.setText(
                 "Instructions:\n\n" +
                 "• Click to add nodes.\n" +
+                "• Scroll to zoom, drag with the right or middle button to pan.\n" +
+                "• Load Graph opens an edge list, DIMACS .gr or Matrix Market .mtx file.\n" +
                 "• Click two nodes to connect them.\n" +
                 "• Toggle directed/undirected anytime.\n" +
                 "• Toggle weighted/unweighted anytime.\n" +
                 "• Reset to start over.\n" +
-                "• Use Next Step and Prev Step to step through the current algorithm’s path visualization." +
+                "• A* finds a shortest path guided by node positions and shades the nodes it explored.\n" +
+                "• Use Next Step and Prev Step to step through the current algorithm’s path visualization. During BFS and DFS, orange nodes are visited and pink nodes are waiting in the queue.\n" +
                 "• Start Quiz to test yourself on BFS, DFS, Dijkstra, or Topological Sort. (Note: BFS/DFS follows class behavior, continuing from a random unvisited node after finishing all reachable nodes from the starting node, until all nodes are traversed.)\n" + 
                 "• Please run in fullscreen to ensure no buttons are clipped."
 
@@ -537,20 +1133,42 @@ public class Visualizer extends JPanel implements MouseListener {
             sidebar.add(bfsButton);
             sidebar.add(dfsButton);
             sidebar.add(dijkstraButton);
+            sidebar.add(astarButton);
             sidebar.add(topoButton);
             sidebar.add(prevButton);
             sidebar.add(nextButton);
             sidebar.add(toggleButton);
             sidebar.add(resetButton);
+            sidebar.add(loadButton);
             sidebar.add(quizToggle);
+            sidebar.add(panel.getCancelButton());
             sidebar.add(modeLabel);
+            sidebar.add(Box.createHorizontalStrut(10));
+            sidebar.add(panel.getStatusLabel());
 
             frame.add(sidebar, BorderLayout.SOUTH);
-            frame.add(new JScrollPane(explanation), BorderLayout.EAST);
+            JPanel east = new JPanel(new BorderLayout());
+            east.add(new JScrollPane(explanation), BorderLayout.CENTER);
+            east.add(new JScrollPane(metricsArea), BorderLayout.SOUTH);
+            frame.add(east, BorderLayout.EAST);
             frame.setVisible(true);
         });
     }
 
+    // Shows the counters of the latest run of each algorithm. Answers served from the cache do not run
+    // anything, so the hit count tells whether the numbers belong to the click that was just made.
+
+    private static void updateMetrics(JTextArea area, Visualizer panel) {
+        StringBuilder sb = new StringBuilder("Metrics (last run):\n");
+        for (AlgoMetrics.Kind kind : AlgoMetrics.Kind.values()) {
+            AlgoMetrics.Run run = AlgoMetrics.last(kind);
+            sb.append(kind).append(": ").append(run == null ? "not run yet" : run.toString()).append('\n');
+        }
+        AlgoCache cache = panel.algoCache();
+        sb.append("Cache: ").append(cache.getHits()).append(" hits, ").append(cache.getMisses()).append(" misses");
+        area.setText(sb.toString());
+    }
+
     // Helper to update the mode label text based.
 
     private static void updateModeLabel(JLabel label, Visualizer panel) {
@@ -565,7 +1183,7 @@ public class Visualizer extends JPanel implements MouseListener {
     }
 
     @Override public void mouseClicked(MouseEvent e) {}
-    @Override public void mouseReleased(MouseEvent e) {}
+    @Override public void mouseMoved(MouseEvent e) {}
     @Override public void mouseEntered(MouseEvent e) {}
     @Override public void mouseExited(MouseEvent e) {}
 }
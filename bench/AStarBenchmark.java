@@ -0,0 +1,67 @@
+import java.util.*;
+
+// Settled vertices and query time of A* with the Euclidean heuristic versus plain Dijkstra on a road-like grid.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes AStarBenchmark [side]
+
+public class AStarBenchmark {
+
+    private static final int SPACING = 100;
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        CsrGraph g = RandomGraphs.roadGrid(side, side, SPACING, 42L).toGraph().freeze();
+        int n = g.getSize();
+        System.out.printf("road grid %dx%d: n=%d m=%d%n", side, side, n, g.edgeCount());
+
+        int[] x = new int[n];
+        int[] y = new int[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = (v % side) * SPACING;
+            y[v] = (v / side) * SPACING;
+        }
+        Heuristic euclid = Heuristic.euclidean(g, x, y);
+        Heuristic zero = Heuristic.zero();
+
+        Random rnd = new Random(7);
+        int queries = 200;
+        int[] src = new int[queries];
+        int[] dst = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            src[i] = rnd.nextInt(n);
+            dst[i] = rnd.nextInt(n);
+        }
+
+        long dijkstraSettled = 0;
+        long astarSettled = 0;
+        for (int i = 0; i < queries; i++) {
+            SearchResult plain = Algo.astarSearch(g, src[i], dst[i], zero);
+            SearchResult guided = Algo.astarSearch(g, src[i], dst[i], euclid);
+            if (length(g, plain.getPath()) != length(g, guided.getPath())) {
+                throw new IllegalStateException("Distance mismatch for " + src[i] + " -> " + dst[i]);
+            }
+            dijkstraSettled += plain.settledCount();
+            astarSettled += guided.settledCount();
+        }
+        System.out.printf("  settled/query: dijkstra %,d  a* %,d  (%.1fx fewer)%n",
+            dijkstraSettled / queries, astarSettled / queries, (double) dijkstraSettled / astarSettled);
+
+        int[] next = {0};
+        Bench.measure("Algo.dijkstraIndexed", () -> {
+            int i = next[0]++ % queries;
+            return Algo.dijkstraIndexed(g, src[i], dst[i]).size();
+        });
+        Bench.measure("Algo.astar euclidean", () -> {
+            int i = next[0]++ % queries;
+            return Algo.astar(g, src[i], dst[i], euclid).size();
+        });
+    }
+
+    private static long length(IndexedGraph g, List<Integer> path) {
+        long d = 0;
+        for (int k = 1; k < path.size(); k++) {
+            d += g.getWeight(path.get(k - 1), path.get(k));
+        }
+        return d;
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.*;
+
+// Throughput and allocation of Graph construction, outNeighbors and every Algo method across graph
+// families and sizes. Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes AlgoBenchmark [maxEdges] [family ...]
+// maxEdges defaults to 10^6 (10^7 needs a few GB of heap for the boxed Graph), families default to all
+// of er, grid, powerlaw, chain and dag.
+
+public class AlgoBenchmark {
+
+    private static final String[] FAMILIES = {"er", "grid", "powerlaw", "chain", "dag"};
+
+    public static void main(String[] args) {
+        int maxEdges = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] families = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : FAMILIES;
+
+        for (String family : families) {
+            for (int m = 1_000; m <= maxEdges; m *= 10) {
+                RandomGraphs.EdgeList edges = RandomGraphs.family(family, m, 42L);
+                Graph g = edges.toGraph();
+                CsrGraph csr = g.freeze();
+                System.out.printf("%s n=%d m=%d%n", family, g.getSize(), csr.edgeCount());
+                run(family, edges, g, csr);
+            }
+        }
+    }
+
+    private static void run(String family, RandomGraphs.EdgeList edges, Graph g, CsrGraph csr) {
+        int n = g.getSize();
+        int src = 0;
+        int dst = n - 1;
+
+        Bench.measure("Graph.addEdge (whole graph)", () -> edges.toGraph().getSize());
+        Bench.measure("Graph.outNeighbors (all vertices)", () -> {
+            long sum = 0;
+            for (int v = 0; v < n; v++) {
+                for (int u : g.outNeighbors(v)) {
+                    sum += u;
+                }
+            }
+            return sum;
+        });
+        Bench.measure("Graph.freeze", () -> g.freeze().edgeCount());
+
+        Bench.measure("Algo.bfs(Graph)", () -> Algo.bfs(g, src).size());
+        Bench.measure("Algo.bfs(CsrGraph)", () -> Algo.bfs(csr, src).size());
+        Traversal.Workspace ws = new Traversal.Workspace(n);
+        Bench.measure("Traversal.bfs", () -> Traversal.bfs(csr, src, ws));
+
+        Bench.measure("Algo.dfs(Graph)", () -> Algo.dfs(g, src).size());
+        Bench.measure("Algo.dfs(CsrGraph)", () -> Algo.dfs(csr, src).size());
+        Bench.measure("Traversal.dfs", () -> Traversal.dfs(csr, src, ws));
+
+        Bench.measure("Algo.dijkstra(Graph)", () -> Algo.dijkstra(g, src, dst).size());
+        Bench.measure("Algo.dijkstra(CsrGraph)", () -> Algo.dijkstra(csr, src, dst).size());
+        Bench.measure("Algo.dijkstraIndexed", () -> Algo.dijkstraIndexed(csr, src, dst).size());
+
+        // Only DAGs have a full topological order, cyclic families bail out at the first back edge
+        if (family.equals("chain") || family.equals("dag")) {
+            Bench.measure("Algo.toposort(Graph)", () -> Algo.toposort(g).size());
+            Bench.measure("Algo.toposort(CsrGraph)", () -> Algo.toposort(csr).size());
+            Bench.measure("Algo.toposortKahn", () -> Algo.toposortKahn(csr).getOrder().size());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Distance-matrix throughput: Algo.dijkstraIndexed in a loop versus BatchShortestPaths on 1..cores workers.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes BatchBenchmark [side] [sources] [destinations]
+
+public class BatchBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int sources = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int targets = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        CsrGraph g = RandomGraphs.roadGrid(side, side, 100, 42L).toGraph().freeze();
+        System.out.printf("road grid %dx%d: n=%d m=%d, %dx%d matrix%n",
+            side, side, g.getSize(), g.edgeCount(), sources, targets);
+
+        Random rnd = new Random(7);
+        int[] from = rnd.ints(sources, 0, g.getSize()).toArray();
+        int[] to = rnd.ints(targets, 0, g.getSize()).toArray();
+        int q = sources * targets;
+        int[] src = new int[q];
+        int[] dst = new int[q];
+        // Interleaved so grouping by source has real work to do
+        for (int i = 0; i < q; i++) {
+            src[i] = from[i % sources];
+            dst[i] = to[i / sources];
+        }
+
+        double loop = Bench.measure("dijkstraIndexed loop", () -> {
+            long sum = 0;
+            for (int i = 0; i < q; i++) {
+                sum += Algo.dijkstraIndexed(g, src[i], dst[i]).size();
+            }
+            return sum;
+        });
+        System.out.printf("  %,.0f queries/s%n", loop * q);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Powers of two, then the machine's actual core count if it is not one of them
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            measureBatch(g, src, dst, threads);
+        }
+        if (Integer.bitCount(cores) != 1) {
+            measureBatch(g, src, dst, cores);
+        }
+    }
+
+    private static void measureBatch(CsrGraph g, int[] src, int[] dst, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        double batch = Bench.measure("BatchShortestPaths " + threads + " workers", () -> {
+            int[] d = BatchShortestPaths.distances(g, src, dst, pool);
+            return d[0];
+        });
+        System.out.printf("  %,.0f queries/s%n", batch * src.length);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,54 @@
+import java.lang.management.ManagementFactory;
+
+// Minimal timing harness: warms an operation up, then reports throughput and bytes allocated per call.
+// Allocation is read from the per-thread counter HotSpot keeps, the same figure JMH's -prof gc reports
+// as gc.alloc.rate.norm.
+
+final class Bench {
+
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+
+    // Results are folded in here so the JIT cannot drop the measured calls
+    static volatile long sink;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Bench() {
+    }
+
+    interface Op {
+        long run();
+    }
+
+    // Runs op for the warmup period, then for the measurement period, prints one result line and returns
+    // the measured ops/s. Both periods run the op at least once, so very slow ops still get a number.
+
+    static double measure(String label, Op op) {
+        loop(op, WARMUP_NANOS);
+        long threadId = Thread.currentThread().getId();
+        long bytes0 = THREADS.getThreadAllocatedBytes(threadId);
+        long t0 = System.nanoTime();
+        long ops = loop(op, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - t0;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytes0;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("  %-36s %12.1f ops/s %12.3f ms/op %14d B/op %10.1f MB/s%n",
+            label, ops / seconds, elapsed / 1e6 / ops, bytes / ops, bytes / seconds / (1 << 20));
+        return ops / seconds;
+    }
+
+    private static long loop(Op op, long nanos) {
+        long acc = 0;
+        long ops = 0;
+        long start = System.nanoTime();
+        do {
+            acc += op.run();
+            ops++;
+        } while (System.nanoTime() - start < nanos);
+        sink += acc;
+        return ops;
+    }
+}
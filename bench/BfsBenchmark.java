@@ -0,0 +1,53 @@
+import java.util.*;
+
+// Compares edge inspections and time of plain top-down bfs against direction-optimizing bfs on an
+// undirected R-MAT graph, which has the skewed degrees and low diameter of social networks.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes BfsBenchmark
+
+public class BfsBenchmark {
+
+    public static void main(String[] args) {
+        int scale = 17;
+        int edgeFactor = 16;
+        CsrGraph g = RandomGraphs.powerLaw(scale, edgeFactor, 42L).toGraph().freeze();
+        System.out.printf("R-MAT scale %d: n=%d m=%d%n", scale, g.getSize(), g.edgeCount());
+
+        Random rnd = new Random(7);
+        Traversal.Workspace ws = new Traversal.Workspace(g.getSize());
+        long topDownEdges = 0;
+        long hybridEdges = 0;
+        long topDownTime = 0;
+        long hybridTime = 0;
+        int runs = 0;
+        for (int round = 0; round < 40; round++) {
+            int src = rnd.nextInt(g.getSize());
+            if (g.degree(src) == 0) {
+                continue;
+            }
+            long t0 = System.nanoTime();
+            DirectionOptimizingBfs.Result r = DirectionOptimizingBfs.bfs(g, src);
+            long t1 = System.nanoTime();
+            Traversal.bfs(g, src, ws);
+            long t2 = System.nanoTime();
+
+            // Top-down reads every out-edge of every vertex it reaches
+            long edges = 0;
+            for (int v = 0; v < g.getSize(); v++) {
+                if (r.level(v) != -1) {
+                    edges += g.degree(v);
+                }
+            }
+            if (round >= 10) {
+                topDownEdges += edges;
+                hybridEdges += r.edgesInspected();
+                hybridTime += t1 - t0;
+                topDownTime += t2 - t1;
+                runs++;
+            }
+        }
+        System.out.printf("  top-down: %,d edges/run  %.2f ms/run%n", topDownEdges / runs, topDownTime / 1e6 / runs);
+        System.out.printf("  hybrid:   %,d edges/run  %.2f ms/run  (%.1fx fewer edges)%n",
+            hybridEdges / runs, hybridTime / 1e6 / runs, (double) topDownEdges / hybridEdges);
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.*;
+
+// Settled vertices and query time of unidirectional versus bidirectional Dijkstra on a road-like grid.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes BidirectionalBenchmark [side]
+
+public class BidirectionalBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        CsrGraph g = RandomGraphs.grid(side, side, 100, 42L).toGraph().freeze();
+        System.out.printf("grid %dx%d: n=%d m=%d%n", side, side, g.getSize(), g.edgeCount());
+
+        Random rnd = new Random(7);
+        int queries = 200;
+        int[] src = new int[queries];
+        int[] dst = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            src[i] = rnd.nextInt(g.getSize());
+            dst[i] = rnd.nextInt(g.getSize());
+        }
+
+        // A unidirectional search settles every vertex closer to src than dst before it stops
+        long uniSettled = 0;
+        long biSettled = 0;
+        BidirectionalDijkstra bi = new BidirectionalDijkstra(g);
+        for (int i = 0; i < queries; i++) {
+            ShortestPathTree tree = Algo.shortestPaths(g, src[i]);
+            int d = tree.distTo(dst[i]);
+            for (int v = 0; v < g.getSize(); v++) {
+                if (tree.distTo(v) <= d) {
+                    uniSettled++;
+                }
+            }
+            bi.path(src[i], dst[i]);
+            if (bi.distance() != d) {
+                throw new IllegalStateException("Distance mismatch for " + src[i] + " -> " + dst[i]);
+            }
+            biSettled += bi.settled();
+        }
+        System.out.printf("  settled/query: unidirectional %,d  bidirectional %,d  (%.1fx fewer)%n",
+            uniSettled / queries, biSettled / queries, (double) uniSettled / biSettled);
+
+        int[] next = {0};
+        Bench.measure("Algo.dijkstraIndexed", () -> {
+            int i = next[0]++ % queries;
+            return Algo.dijkstraIndexed(g, src[i], dst[i]).size();
+        });
+        Bench.measure("BidirectionalDijkstra.path", () -> {
+            int i = next[0]++ % queries;
+            return bi.path(src[i], dst[i]).size();
+        });
+    }
+}
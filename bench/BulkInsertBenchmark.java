@@ -0,0 +1,28 @@
+import java.util.*;
+
+// Graph construction with one addEdge call per edge versus a single addEdges batch.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes BulkInsertBenchmark [edges ...]
+// Edge counts default to 10^6 and 4 * 10^6 on Erdős–Rényi graphs.
+
+public class BulkInsertBenchmark {
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[]{1_000_000, 4_000_000};
+        for (int m : sizes) {
+            RandomGraphs.EdgeList e = RandomGraphs.family("er", m, 42L);
+            int[] us = Arrays.copyOf(e.from, e.size);
+            int[] vs = Arrays.copyOf(e.to, e.size);
+            int[] ws = Arrays.copyOf(e.weight, e.size);
+            System.out.printf("er n=%d m=%d%n", e.n, e.size);
+
+            Bench.measure("addEdge loop", () -> e.toGraph().getVersion());
+            Bench.measure("addEdges batch", () -> {
+                Graph g = new Graph(e.n);
+                return g.addEdges(us, vs, ws);
+            });
+        }
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.*;
+
+// Preprocessing time, index memory and query speedup of a contraction hierarchy over Dijkstra.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes ContractionHierarchyBenchmark [side]
+
+public class ContractionHierarchyBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        CsrGraph g = RandomGraphs.roadGrid(side, side, 100, 42L).toGraph().freeze();
+        System.out.printf("road grid %dx%d: n=%d m=%d%n", side, side, g.getSize(), g.edgeCount());
+
+        ContractionHierarchy ch = new ContractionHierarchy(g);
+        long graphBytes = 4L * (g.getSize() + 1 + 2L * g.edgeCount());
+        System.out.printf("  preprocessing %.2f s, %,d shortcuts, index %.1f MB (graph %.1f MB)%n",
+            ch.getPreprocessNanos() / 1e9, ch.shortcutCount(), ch.memoryBytes() / 1e6, graphBytes / 1e6);
+
+        Random rnd = new Random(7);
+        int queries = 500;
+        int[] src = new int[queries];
+        int[] dst = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            src[i] = rnd.nextInt(g.getSize());
+            dst[i] = rnd.nextInt(g.getSize());
+        }
+
+        long chSettled = 0;
+        for (int i = 0; i < queries; i++) {
+            ch.path(src[i], dst[i]);
+            if (ch.distance() != Algo.shortestPaths(g, src[i]).distTo(dst[i])) {
+                throw new IllegalStateException("Distance mismatch for " + src[i] + " -> " + dst[i]);
+            }
+            chSettled += ch.settled();
+        }
+        System.out.printf("  settled/query: contraction hierarchy %,d%n", chSettled / queries);
+
+        int[] next = {0};
+        double dijkstra = Bench.measure("Algo.dijkstraIndexed", () -> {
+            int i = next[0]++ % queries;
+            return Algo.dijkstraIndexed(g, src[i], dst[i]).size();
+        });
+        double hierarchy = Bench.measure("ContractionHierarchy.path", () -> {
+            int i = next[0]++ % queries;
+            return ch.path(src[i], dst[i]).size();
+        });
+        System.out.printf("  query speedup %.0fx%n", hierarchy / dijkstra);
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.*;
+
+// Indexed-heap Dijkstra versus Dial's bucket queue on small integer weights, and versus the bfs fallback
+// on unit weights.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes DialBenchmark [side]
+
+public class DialBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        run("road grid weights 100..200", RandomGraphs.roadGrid(side, side, 100, 42L).toGraph().freeze(), 200);
+        run("grid weights 1..10", RandomGraphs.grid(side, side, 10, 42L).toGraph().freeze(), 10);
+        run("grid unit weights", RandomGraphs.grid(side, side, 1, 42L).toGraph().freeze(), 1);
+        run("er n=200000 weights 1..1000", RandomGraphs.erdosRenyi(200_000, 1_000_000, 1000, 42L).toGraph().freeze(),
+            1000);
+    }
+
+    private static void run(String name, CsrGraph g, int maxWeight) {
+        System.out.printf("%s: n=%d m=%d%n", name, g.getSize(), g.edgeCount());
+        Random rnd = new Random(7);
+        int queries = 100;
+        int[] src = rnd.ints(queries, 0, g.getSize()).toArray();
+        int[] dst = rnd.ints(queries, 0, g.getSize()).toArray();
+
+        int[] next = {0};
+        Bench.measure("Algo.dijkstraIndexed", () -> {
+            int i = next[0]++ % queries;
+            return Algo.dijkstraIndexed(g, src[i], dst[i]).size();
+        });
+        Bench.measure("Algo.dijkstraDial", () -> {
+            int i = next[0]++ % queries;
+            return Algo.dijkstraDial(g, src[i], dst[i]).size();
+        });
+        if (maxWeight > 1) {
+            Bench.measure("Algo.dijkstraDial known bound", () -> {
+                int i = next[0]++ % queries;
+                return Algo.dijkstraDial(g, src[i], dst[i], maxWeight).size();
+            });
+        }
+    }
+}
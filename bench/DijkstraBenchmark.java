@@ -0,0 +1,64 @@
+import java.util.*;
+
+// Compares the lazy-deletion PriorityQueue Dijkstra against the indexed d-ary heap version.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes DijkstraBenchmark
+
+public class DijkstraBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        run("sparse n=200000 m=1000000", randomGraph(200_000, 1_000_000, 1000, 42L));
+        run("dense  n=3000   m=4000000", randomGraph(3_000, 4_000_000, 1000, 43L));
+    }
+
+    // Times every variant on the same query set, one warmup pass first so the JIT has compiled both.
+
+    private static void run(String name, CsrGraph g) {
+        Random rnd = new Random(7);
+        int queries = 20;
+        int[] src = new int[queries];
+        int[] dst = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            src[i] = rnd.nextInt(g.getSize());
+            dst[i] = rnd.nextInt(g.getSize());
+        }
+
+        System.out.println(name);
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            boolean report = round >= WARMUP_ROUNDS;
+            long lazy = time(() -> {
+                for (int i = 0; i < queries; i++) {
+                    Algo.dijkstra(g, src[i], dst[i]);
+                }
+            });
+            long[] indexed = new long[3];
+            int[] arities = {2, 4, 8};
+            for (int a = 0; a < arities.length; a++) {
+                int arity = arities[a];
+                indexed[a] = time(() -> {
+                    for (int i = 0; i < queries; i++) {
+                        Algo.dijkstraIndexed(g, src[i], dst[i], arity);
+                    }
+                });
+            }
+            if (report) {
+                System.out.printf("  lazy %7.2f ms/query   2-ary %7.2f   4-ary %7.2f   8-ary %7.2f%n",
+                    lazy / 1e6 / queries, indexed[0] / 1e6 / queries,
+                    indexed[1] / 1e6 / queries, indexed[2] / 1e6 / queries);
+            }
+        }
+    }
+
+    private static long time(Runnable r) {
+        long t0 = System.nanoTime();
+        r.run();
+        return System.nanoTime() - t0;
+    }
+
+    private static CsrGraph randomGraph(int n, int m, int maxWeight, long seed) {
+        return RandomGraphs.erdosRenyi(n, m, maxWeight, seed).toGraph().freeze();
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.*;
+
+// Cost of keeping a shortest path tree current under single-edge edits: DynamicShortestPaths repairs
+// versus rerunning Algo.shortestPaths after every edit.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes DynamicBenchmark [side]
+
+public class DynamicBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        Graph g = RandomGraphs.roadGrid(side, side, 100, 42L).toGraph();
+        int n = g.getSize();
+        System.out.printf("road grid %dx%d: n=%d%n", side, side, n);
+
+        DynamicShortestPaths tree = new DynamicShortestPaths(g, 0);
+        Random rnd = new Random(7);
+        long[] repaired = new long[1];
+        long[] edits = new long[1];
+        Bench.measure("edit + DynamicShortestPaths repair", () -> {
+            edit(g, rnd);
+            repaired[0] += tree.repaired();
+            edits[0]++;
+            return tree.distTo(n - 1);
+        });
+        System.out.printf("  %,d vertices repaired per weight change on average%n", repaired[0] / edits[0]);
+        tree.detach();
+
+        Bench.measure("edit + Algo.shortestPaths rerun", () -> {
+            edit(g, rnd);
+            return Algo.shortestPaths(g, 0).distTo(n - 1);
+        });
+
+        // Sanity check that the repairs kept the tree exact
+        DynamicShortestPaths check = new DynamicShortestPaths(g, 0);
+        for (int i = 0; i < 1000; i++) {
+            edit(g, rnd);
+        }
+        ShortestPathTree full = Algo.shortestPaths(g, 0);
+        for (int v = 0; v < n; v++) {
+            if (full.distTo(v) != check.distTo(v)) {
+                throw new IllegalStateException("Distance mismatch at " + v);
+            }
+        }
+    }
+
+    // Reweights a random grid edge in both directions, half the time up and half down.
+
+    private static void edit(Graph g, Random rnd) {
+        int u = rnd.nextInt(g.getSize());
+        List<Integer> out = new ArrayList<>(g.outNeighbors(u));
+        int v = out.get(rnd.nextInt(out.size()));
+        int w = 100 + rnd.nextInt(101);
+        g.setWeight(u, v, w);
+        g.setWeight(v, u, w);
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.*;
+
+// Cost of AlgoMetrics: each instrumented Algo method with recording disabled and then enabled.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes MetricsBenchmark [side]
+
+public class MetricsBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        CsrGraph g = RandomGraphs.roadGrid(side, side, 100, 42L).toGraph().freeze();
+        CsrGraph dag = RandomGraphs.dag(g.getSize(), g.edgeCount(), 100, 42L).toGraph().freeze();
+        System.out.printf("road grid %dx%d: n=%d m=%d%n", side, side, g.getSize(), g.edgeCount());
+
+        Random rnd = new Random(7);
+        int queries = 100;
+        int[] src = rnd.ints(queries, 0, g.getSize()).toArray();
+        int[] dst = rnd.ints(queries, 0, g.getSize()).toArray();
+
+        for (boolean on : new boolean[]{false, true}) {
+            if (on) {
+                AlgoMetrics.enable();
+            } else {
+                AlgoMetrics.disable();
+            }
+            String suffix = on ? " (metrics on)" : "";
+            int[] next = {0};
+            Bench.measure("Algo.bfs" + suffix, () -> Algo.bfs(g, src[next[0]++ % queries]).size());
+            Bench.measure("Algo.dfs" + suffix, () -> Algo.dfs(g, src[next[0]++ % queries]).size());
+            Bench.measure("Algo.dijkstra" + suffix, () -> {
+                int i = next[0]++ % queries;
+                return Algo.dijkstra(g, src[i], dst[i]).size();
+            });
+            Bench.measure("Algo.dijkstraIndexed" + suffix, () -> {
+                int i = next[0]++ % queries;
+                return Algo.dijkstraIndexed(g, src[i], dst[i]).size();
+            });
+            Bench.measure("Algo.toposort" + suffix, () -> Algo.toposort(dag).size());
+        }
+        System.out.print(AlgoMetrics.summary());
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.*;
+
+// Seeded graph generators shared by the benchmarks. Each returns a plain edge list so a benchmark can
+// time building the Graph separately from generating it.
+
+final class RandomGraphs {
+
+    private RandomGraphs() {
+    }
+
+    // Directed edges as parallel arrays, possibly with duplicates that Graph.addEdge will skip.
+
+    static final class EdgeList {
+        final int n;
+        final int[] from;
+        final int[] to;
+        final int[] weight;
+        int size;
+
+        EdgeList(int n, int capacity) {
+            this.n = n;
+            from = new int[capacity];
+            to = new int[capacity];
+            weight = new int[capacity];
+        }
+
+        void add(int u, int v, int w) {
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+        }
+
+        // Builds a Graph by calling addEdge once per edge.
+
+        Graph toGraph() {
+            Graph g = new Graph(n);
+            for (int i = 0; i < size; i++) {
+                g.addEdge(from[i], to[i], weight[i]);
+            }
+            return g;
+        }
+    }
+
+    // Builds the named family with roughly m edges: er, grid, powerlaw, chain or dag.
+
+    static EdgeList family(String name, int m, long seed) {
+        switch (name) {
+            case "er":
+                return erdosRenyi(Math.max(2, m / 8), m, 1000, seed);
+            case "grid": {
+                // A rows x rows grid has about 4 * rows^2 directed edges
+                int rows = Math.max(2, (int) Math.sqrt(m / 4.0));
+                return grid(rows, rows, 1000, seed);
+            }
+            case "powerlaw": {
+                int scale = Math.max(2, 31 - Integer.numberOfLeadingZeros(Math.max(1, m / 16)));
+                return powerLaw(scale, Math.max(1, m / (2 << scale)), seed);
+            }
+            case "chain":
+                return chain(m + 1, 1000, seed);
+            case "dag":
+                return dag(Math.max(2, m / 8), m, 1000, seed);
+            default:
+                throw new IllegalArgumentException("Unknown graph family: " + name);
+        }
+    }
+
+    // G(n, m): m directed edges between uniformly random distinct endpoints.
+
+    static EdgeList erdosRenyi(int n, int m, int maxWeight, long seed) {
+        Random rnd = new Random(seed);
+        EdgeList e = new EdgeList(n, m);
+        while (e.size < m) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u != v) {
+                e.add(u, v, 1 + rnd.nextInt(maxWeight));
+            }
+        }
+        return e;
+    }
+
+    // Undirected 4-neighbor grid, both directions share the same random weight.
+
+    static EdgeList grid(int rows, int cols, int maxWeight, long seed) {
+        Random rnd = new Random(seed);
+        EdgeList e = new EdgeList(rows * cols, 4 * rows * cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols) {
+                    int w = 1 + rnd.nextInt(maxWeight);
+                    e.add(v, v + 1, w);
+                    e.add(v + 1, v, w);
+                }
+                if (r + 1 < rows) {
+                    int w = 1 + rnd.nextInt(maxWeight);
+                    e.add(v, v + cols, w);
+                    e.add(v + cols, v, w);
+                }
+            }
+        }
+        return e;
+    }
+
+    // Grid laid out with vertex r * cols + c at (c * spacing, r * spacing), each edge weighing between one
+    // and two times its length, so straight-line distance is a meaningful lower bound as on road maps.
+
+    static EdgeList roadGrid(int rows, int cols, int spacing, long seed) {
+        Random rnd = new Random(seed);
+        EdgeList e = new EdgeList(rows * cols, 4 * rows * cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols) {
+                    int w = spacing + rnd.nextInt(spacing + 1);
+                    e.add(v, v + 1, w);
+                    e.add(v + 1, v, w);
+                }
+                if (r + 1 < rows) {
+                    int w = spacing + rnd.nextInt(spacing + 1);
+                    e.add(v, v + cols, w);
+                    e.add(v + cols, v, w);
+                }
+            }
+        }
+        return e;
+    }
+
+    // Undirected R-MAT graph with 2^scale vertices and edgeFactor * 2^scale edges in each direction.
+    // Skewed degrees and a small diameter, the shape of social networks.
+
+    static EdgeList powerLaw(int scale, int edgeFactor, long seed) {
+        Random rnd = new Random(seed);
+        int n = 1 << scale;
+        int m = edgeFactor * n;
+        EdgeList e = new EdgeList(n, 2 * m);
+        for (int i = 0; i < m; i++) {
+            int u = 0;
+            int v = 0;
+            for (int bit = 0; bit < scale; bit++) {
+                double p = rnd.nextDouble();
+                if (p >= 0.57 && p < 0.76) {
+                    v |= 1 << bit;
+                } else if (p >= 0.76 && p < 0.95) {
+                    u |= 1 << bit;
+                } else if (p >= 0.95) {
+                    u |= 1 << bit;
+                    v |= 1 << bit;
+                }
+            }
+            if (u != v) {
+                e.add(u, v, 1);
+                e.add(v, u, 1);
+            }
+        }
+        return e;
+    }
+
+    // Path 0 -> 1 -> ... -> n-1, the deepest possible traversal.
+
+    static EdgeList chain(int n, int maxWeight, long seed) {
+        Random rnd = new Random(seed);
+        EdgeList e = new EdgeList(n, n - 1);
+        for (int v = 0; v + 1 < n; v++) {
+            e.add(v, v + 1, 1 + rnd.nextInt(maxWeight));
+        }
+        return e;
+    }
+
+    // Random DAG: m edges each pointing from the smaller to the larger endpoint.
+
+    static EdgeList dag(int n, int m, int maxWeight, long seed) {
+        Random rnd = new Random(seed);
+        EdgeList e = new EdgeList(n, m);
+        while (e.size < m) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u != v) {
+                e.add(Math.min(u, v), Math.max(u, v), 1 + rnd.nextInt(maxWeight));
+            }
+        }
+        return e;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.*;
+
+// Cost of recording an AlgoTrace during bfs and dijkstra, and of seeking and stepping through the
+// result, on a random graph large enough for a trace of millions of events.
+// Usage, after mvn test-compile:
+//   java -cp target/classes:target/test-classes TraceBenchmark [n]
+
+public class TraceBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Graph g = RandomGraphs.erdosRenyi(n, 4 * n, 100, 42L).toGraph();
+        System.out.printf("random graph: n=%d m=%d%n", n, 4 * n);
+
+        Random rnd = new Random(7);
+        Bench.measure("Algo.bfs", () -> Algo.bfs(g, rnd.nextInt(n)).size());
+        Bench.measure("Algo.bfs traced", () -> Algo.bfs(g, rnd.nextInt(n), new AlgoTrace(n)).size());
+        Bench.measure("Algo.dijkstra", () -> Algo.dijkstra(g, rnd.nextInt(n), rnd.nextInt(n)).size());
+        Bench.measure("Algo.dijkstra traced",
+            () -> Algo.dijkstra(g, rnd.nextInt(n), rnd.nextInt(n), new AlgoTrace(n)).size());
+
+        AlgoTrace trace = new AlgoTrace(n);
+        Algo.bfs(g, 0, trace);
+        System.out.printf("bfs trace: %,d events, %,d steps, %.1f MB%n",
+            trace.size(), trace.steps(), trace.memoryBytes() / 1e6);
+
+        AlgoTrace.Cursor cursor = trace.cursor();
+        Bench.measure("Cursor.seek random step", () -> {
+            cursor.seek(rnd.nextInt(trace.steps() + 1));
+            return cursor.step();
+        });
+        cursor.seek(trace.steps() / 2);
+        Bench.measure("Cursor.next / previous", () -> {
+            if (rnd.nextBoolean()) {
+                cursor.next();
+            } else {
+                cursor.previous();
+            }
+            return cursor.step();
+        });
+    }
+}